@@ -0,0 +1,115 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.bench;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import chat.dim.protocol.Content;
+import chat.dim.protocol.InstantMessage;
+import chat.dim.protocol.ReliableMessage;
+
+/**
+ *  Bulk conveniences: convert() / revert() / stream()
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ConvertBenchmark {
+
+    @Param({"1000"})
+    public int count;
+
+    private List<Object> contents;
+    private List<Object> instantMessages;
+    private List<Object> reliableMessages;
+
+    private List<Content> parsedContents;
+    private List<InstantMessage> parsedInstantMessages;
+    private List<ReliableMessage> parsedReliableMessages;
+
+    @Setup
+    public void setup() {
+        BenchExtensions.install();
+        contents = Payloads.batch(count, Payloads.content());
+        instantMessages = Payloads.batch(count, Payloads.instantMessage());
+        reliableMessages = Payloads.batch(count, Payloads.reliableMessage());
+        parsedContents = Content.convert(contents);
+        parsedInstantMessages = InstantMessage.convert(instantMessages);
+        parsedReliableMessages = ReliableMessage.convert(reliableMessages);
+    }
+
+    @Benchmark
+    public List<Content> convertContents() {
+        return Content.convert(contents);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> revertContents() {
+        return Content.revert(parsedContents);
+    }
+
+    @Benchmark
+    public List<InstantMessage> convertInstantMessages() {
+        return InstantMessage.convert(instantMessages);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> revertInstantMessages() {
+        return InstantMessage.revert(parsedInstantMessages);
+    }
+
+    @Benchmark
+    public List<ReliableMessage> convertReliableMessages() {
+        return ReliableMessage.convert(reliableMessages);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> revertReliableMessages() {
+        return ReliableMessage.revert(parsedReliableMessages);
+    }
+
+    @Benchmark
+    public long streamReliableMessages() {
+        return ReliableMessage.stream(reliableMessages).count();
+    }
+
+}
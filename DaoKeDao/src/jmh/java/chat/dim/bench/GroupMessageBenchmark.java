@@ -0,0 +1,99 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import chat.dim.dkd.MessageSplitter;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.ReliableMessage;
+
+/**
+ *  Group messages carrying encrypted keys for all members
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GroupMessageBenchmark {
+
+    @Param({"100", "2000"})
+    public int members;
+
+    private Map<String, Object> groupMessage;
+    private String member;
+    private List<ID> memberIDs;
+
+    @Setup
+    public void setup() {
+        BenchExtensions.install();
+        groupMessage = Payloads.groupMessage(members);
+        member = Payloads.member(members / 2);
+        memberIDs = new ArrayList<>(members);
+        for (int i = 0; i < members; ++i) {
+            memberIDs.add(ID.parse(Payloads.member(i)));
+        }
+    }
+
+    @Benchmark
+    public void parseGroupMessage(Blackhole bh) {
+        ReliableMessage msg = ReliableMessage.parse(groupMessage);
+        bh.consume(msg.getSender());
+        bh.consume(msg.getReceiver());
+        bh.consume(msg.getData());
+        bh.consume(msg.getSignature());
+    }
+
+    @Benchmark
+    public Object pickMemberKey() {
+        ReliableMessage msg = ReliableMessage.parse(groupMessage);
+        return msg.getEncryptedKeys().get(member);
+    }
+
+    @Benchmark
+    public List<ReliableMessage> splitGroupMessage() {
+        ReliableMessage msg = ReliableMessage.parse(groupMessage);
+        return MessageSplitter.split(msg, memberIDs);
+    }
+
+}
@@ -0,0 +1,135 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.bench;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import chat.dim.ext.CachingIDHelper;
+import chat.dim.protocol.Content;
+import chat.dim.protocol.Envelope;
+import chat.dim.protocol.InstantMessage;
+import chat.dim.protocol.ReliableMessage;
+import chat.dim.protocol.SecureMessage;
+
+/**
+ *  Parse single messages from the README examples,
+ *  then read the fields a station/client usually needs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MessageBenchmark {
+
+    @Param({"false", "true"})
+    public boolean cacheIDs;
+
+    private Map<String, Object> envelope;
+    private Map<String, Object> content;
+    private Map<String, Object> instantMessage;
+    private Map<String, Object> secureMessage;
+    private Map<String, Object> reliableMessage;
+
+    @Setup
+    public void setup() {
+        BenchExtensions.install();
+        if (cacheIDs) {
+            CachingIDHelper.install(1024);
+        }
+        envelope = Payloads.envelope();
+        content = Payloads.content();
+        instantMessage = Payloads.instantMessage();
+        secureMessage = Payloads.secureMessage();
+        reliableMessage = Payloads.reliableMessage();
+    }
+
+    @Benchmark
+    public void parseEnvelope(Blackhole bh) {
+        Envelope env = Envelope.parse(envelope);
+        bh.consume(env.getSender());
+        bh.consume(env.getReceiver());
+        bh.consume(env.getTime());
+    }
+
+    @Benchmark
+    public void parseContent(Blackhole bh) {
+        Content body = Content.parse(content);
+        bh.consume(body.getType());
+        bh.consume(body.getSerialNumber());
+    }
+
+    @Benchmark
+    public void parseInstantMessage(Blackhole bh) {
+        InstantMessage msg = InstantMessage.parse(instantMessage);
+        bh.consume(msg.getSender());
+        bh.consume(msg.getReceiver());
+        bh.consume(msg.getContent().getType());
+    }
+
+    @Benchmark
+    public void parseSecureMessage(Blackhole bh) {
+        SecureMessage msg = SecureMessage.parse(secureMessage);
+        bh.consume(msg.getSender());
+        bh.consume(msg.getReceiver());
+        bh.consume(msg.getData());
+        bh.consume(msg.getEncryptedKeys());
+    }
+
+    @Benchmark
+    public void parseReliableMessage(Blackhole bh) {
+        ReliableMessage msg = ReliableMessage.parse(reliableMessage);
+        bh.consume(msg.getSender());
+        bh.consume(msg.getReceiver());
+        bh.consume(msg.getData());
+        bh.consume(msg.getSignature());
+    }
+
+    @Benchmark
+    public void routeReliableMessage(Blackhole bh) {
+        // station only needs the envelope fields to deliver a message
+        ReliableMessage msg = ReliableMessage.parse(reliableMessage);
+        bh.consume(msg.getSender());
+        bh.consume(msg.getReceiver());
+        bh.consume(msg.getGroup());
+        bh.consume(msg.getType());
+    }
+
+}
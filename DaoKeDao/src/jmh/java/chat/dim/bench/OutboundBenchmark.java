@@ -0,0 +1,109 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.bench;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import chat.dim.ext.InstantMessageBuilder;
+import chat.dim.format.JSONWriter;
+import chat.dim.protocol.Content;
+import chat.dim.protocol.Envelope;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.InstantMessage;
+
+/**
+ *  Send one content to 100 receivers, serialized into a buffer:
+ *  creating message objects vs the reusable builder.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OutboundBenchmark {
+
+    private static final int RECEIVERS = 100;
+
+    private ID sender;
+    private final List<ID> receivers = new ArrayList<>();
+    private Map<String, Object> content;
+
+    private final StringBuilder text = new StringBuilder(1024);
+    private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+    @Setup
+    public void setup() {
+        BenchExtensions.install();
+        sender = ID.parse(Payloads.SENDER);
+        for (int i = 0; i < RECEIVERS; ++i) {
+            receivers.add(ID.parse(Payloads.member(i)));
+        }
+        content = Payloads.content();
+    }
+
+    @Benchmark
+    public int fanOutObjects() {
+        buffer.clear();
+        Content body = Content.parse(content);
+        for (ID to : receivers) {
+            Envelope env = Envelope.create(sender, to, new Date());
+            InstantMessage msg = InstantMessage.create(env, body);
+            text.setLength(0);
+            JSONWriter.appendMap(msg.toMap(), text);
+            JSONWriter.encode(text, buffer);
+        }
+        return buffer.position();
+    }
+
+    @Benchmark
+    public int fanOutBuilder() {
+        buffer.clear();
+        InstantMessageBuilder builder = InstantMessageBuilder.getInstance();
+        builder.reset().setSender(sender).setTime(System.currentTimeMillis()).setContent(content);
+        for (ID to : receivers) {
+            builder.setReceiver(to);
+            builder.encodeMessage(buffer);
+        }
+        return buffer.position();
+    }
+
+}
@@ -0,0 +1,130 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.bench;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ *  Sample payloads, taken from the README examples
+ */
+final class Payloads {
+
+    static final String SENDER = "moki@4WDfe3zZ4T7opFSi3iDAKiuTnUHjxmXekk";
+    static final String RECEIVER = "hulk@4YeVEN3aUnvC1DNUufCq1bs9zoBSJTzVEj";
+    static final String GROUP = "Group-1280719982@7oMeWadRw4qat2sL4mTdcQSDAqZSo7LH5G";
+
+    static final double TIME = 1545405083;
+
+    static final String DATA = "9cjCKG99ULCCxbL2mkc/MgF1saeRqJaCc+S12+HCqmsuF7TWK61EwTQWZSKskUeF";
+    static final String KEY = "WH/wAcu+HfpaLq+vRblNnYufkyjTm4FgYyzW3wBDeRtXs1TeDmRxKVu7nQI/sdIALGLXrY+O5mlRfhU8f8TuIBilZUlX/eIUpL4uSDYKVLaRG9pOcrCHKevjUpId9x/8KBEiMIL5LB0Vo7sKrvrqosCnIgNfHbXMKvMzwcqZEU8=";
+    static final String SIGNATURE = "Yo+hchWsQlWHtc8iMGS7jpn/i9pOLNq0E3dTNsx80QdBboTLeKoJYAg/lI+kZL+g7oWJYpD4qKemOwzI+9pxdMuZmPycG+0/VM3HVSMcguEOqOH9SElp/fYVnm4aSjAJk2vBpARzMT0aRNp/jTFLawmMDuIlgWhBfXvH7bT7rDI=";
+
+    private static final Random random = new Random(20181221);
+
+    static Map<String, Object> envelope() {
+        Map<String, Object> env = new HashMap<>();
+        env.put("sender", SENDER);
+        env.put("receiver", RECEIVER);
+        env.put("time", TIME);
+        return env;
+    }
+
+    static Map<String, Object> content() {
+        Map<String, Object> content = new HashMap<>();
+        content.put("type", "1");
+        content.put("sn", 412968873L);
+        content.put("text", "Hey guy!");
+        return content;
+    }
+
+    static Map<String, Object> instantMessage() {
+        Map<String, Object> msg = envelope();
+        msg.put("content", content());
+        return msg;
+    }
+
+    static Map<String, Object> secureMessage() {
+        Map<String, Object> msg = envelope();
+        msg.put("data", DATA);
+        msg.put("key", KEY);
+        return msg;
+    }
+
+    static Map<String, Object> reliableMessage() {
+        Map<String, Object> msg = secureMessage();
+        msg.put("signature", SIGNATURE);
+        return msg;
+    }
+
+    /**
+     *  Group message with encrypted keys for all members
+     *
+     * @param members - member count
+     * @return reliable message info
+     */
+    static Map<String, Object> groupMessage(int members) {
+        Map<String, Object> keys = new HashMap<>(members * 2);
+        for (int i = 0; i < members; ++i) {
+            keys.put(member(i), randomBase64(128));
+        }
+        keys.put("digest", randomBase64(6));
+        Map<String, Object> msg = envelope();
+        msg.put("receiver", GROUP);
+        msg.put("data", randomBase64(512));
+        msg.put("keys", keys);
+        msg.put("signature", SIGNATURE);
+        return msg;
+    }
+
+    static String member(int index) {
+        return "user" + index + "@4YeVEN3aUnvC1DNUufCq1bs9zoBSJTzVEj";
+    }
+
+    static List<Object> batch(int count, Map<String, Object> sample) {
+        List<Object> array = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            array.add(new HashMap<>(sample));
+        }
+        return array;
+    }
+
+    private static String randomBase64(int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+}
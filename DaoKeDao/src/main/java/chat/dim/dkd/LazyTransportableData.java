@@ -0,0 +1,141 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.dkd;
+
+import chat.dim.protocol.TransportableData;
+import chat.dim.type.ConstantString;
+
+/**
+ *  Transportable Data, decoded on demand
+ *  <p>
+ *      Keeps the encoded string (e.g. base64) as it was received,
+ *      and decodes it only when 'getBytes()' is called,
+ *      so relaying a message costs nothing on 'data' &amp; 'signature'.
+ *  </p>
+ */
+public final class LazyTransportableData extends ConstantString implements TransportableData {
+
+    public static final String DEFAULT_ENCODING = "base64";
+
+    private volatile TransportableData decoded = null;
+    private volatile boolean failed = false;
+
+    public LazyTransportableData(String encoded) {
+        super(encoded);
+    }
+
+    private TransportableData getDecoded() {
+        TransportableData ted = decoded;
+        if (ted == null && !failed) {
+            try {
+                ted = TransportableData.parse(toString());
+            } catch (IllegalArgumentException e) {
+                ted = null;
+            }
+            if (ted == null) {
+                // invalid payload, don't try again
+                failed = true;
+            } else {
+                decoded = ted;
+            }
+        }
+        return ted;
+    }
+
+    public boolean isDecoded() {
+        return decoded != null;
+    }
+
+    /**
+     *  Get encoding from the string prefix, without decoding
+     *  <p>
+     *      "{BASE64_ENCODE}"
+     *      "base64,{BASE64_ENCODE}"
+     *      "data:image/png;base64,{BASE64_ENCODE}"
+     *  </p>
+     */
+    @Override
+    public String getEncoding() {
+        String text = toString();
+        int pos = text.indexOf(',');
+        if (pos < 0) {
+            return DEFAULT_ENCODING;
+        }
+        int start = text.lastIndexOf(';', pos) + 1;
+        if (start == 0 && text.startsWith("data:")) {
+            // "data:text/plain,{TEXT}"
+            return null;
+        }
+        return text.substring(start, pos);
+    }
+
+    /**
+     *  Get decoded bytes
+     *
+     * @return null on invalid payload
+     */
+    @Override
+    public byte[] getBytes() {
+        TransportableData ted = getDecoded();
+        if (ted == null) {
+            return null;
+        }
+        try {
+            return ted.getBytes();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     *  Original encoded string
+     */
+    @Override
+    public Object serialize() {
+        return toString();
+    }
+
+    //
+    //  Factory method
+    //
+
+    public static TransportableData parse(Object data) {
+        if (data == null) {
+            return null;
+        } else if (data instanceof TransportableData) {
+            return (TransportableData) data;
+        } else if (data instanceof String) {
+            return new LazyTransportableData((String) data);
+        }
+        return TransportableData.parse(data);
+    }
+
+}
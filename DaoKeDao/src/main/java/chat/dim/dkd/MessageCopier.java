@@ -0,0 +1,92 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.dkd;
+
+import java.util.Map;
+
+import chat.dim.data.Wrapper;
+import chat.dim.protocol.Content;
+import chat.dim.protocol.Envelope;
+import chat.dim.protocol.InstantMessage;
+import chat.dim.protocol.ReliableMessage;
+import chat.dim.protocol.SecureMessage;
+import chat.dim.type.Mapper;
+
+/**
+ *  Copy-on-Write Copier
+ *  <p>
+ *      Makes a cheap copy of a message/envelope/content for forwarding:
+ *      the copy is an 'OverlayMap' over a frozen snapshot of the original's
+ *      top-level fields, so setters ('setGroup()', 'setType()', 'put()', ...)
+ *      on either side never show up on the other side.
+ *      Copying a copy shares the same snapshot, without copying again.
+ *  </p>
+ *  <p>
+ *      Nested maps (except the 'content' of instant message) are shared,
+ *      put a new value to change them.
+ *  </p>
+ */
+public final class MessageCopier {
+
+    private MessageCopier() {
+    }
+
+    public static Map<String, Object> copyMap(Mapper mapper) {
+        return OverlayMap.share(mapper.toMap());
+    }
+
+    public static Envelope copy(Envelope env) {
+        return Envelope.parse(copyMap(env));
+    }
+
+    public static Content copy(Content content) {
+        return Content.parse(copyMap(content));
+    }
+
+    public static InstantMessage copy(InstantMessage msg) {
+        Map<String, Object> info = copyMap(msg);
+        // content is usually changed while forwarding, share it too
+        Map<String, Object> content = Wrapper.getMap(info.get("content"));
+        if (content != null) {
+            info.put("content", OverlayMap.share(content));
+        }
+        return InstantMessage.parse(info);
+    }
+
+    public static SecureMessage copy(SecureMessage msg) {
+        return SecureMessage.parse(copyMap(msg));
+    }
+
+    public static ReliableMessage copy(ReliableMessage msg) {
+        return ReliableMessage.parse(copyMap(msg));
+    }
+
+}
@@ -0,0 +1,145 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.dkd;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import chat.dim.protocol.ID;
+import chat.dim.protocol.ReliableMessage;
+import chat.dim.protocol.SecureMessage;
+
+/**
+ *  Group Message Splitter
+ *  <p>
+ *      Splits a group message to a message for each member:
+ *      'receiver' is changed to the member, 'group' is set to the group ID,
+ *      and 'keys' is replaced by the member's own 'key'.
+ *  </p>
+ *  <p>
+ *      Every split message is an 'OverlayMap' view over one frozen snapshot
+ *      of the original map, so the body ('data', 'signature', ...) is shared,
+ *      not copied, and later changes on the original message don't leak
+ *      into the split messages.
+ *  </p>
+ */
+public final class MessageSplitter {
+
+    private MessageSplitter() {
+    }
+
+    /**
+     *  Trim group message for one member
+     *
+     * @param msg    - group message
+     * @param member - group member
+     * @return message for the member
+     */
+    public static SecureMessage trim(SecureMessage msg, ID member) {
+        OverlayMap base = OverlayMap.share(msg.toMap());
+        return SecureMessage.parse(view(base, getGroup(msg), msg.getEncryptedKeys(), member));
+    }
+
+    public static ReliableMessage trim(ReliableMessage msg, ID member) {
+        OverlayMap base = OverlayMap.share(msg.toMap());
+        return ReliableMessage.parse(view(base, getGroup(msg), msg.getEncryptedKeys(), member));
+    }
+
+    /**
+     *  Split group message for members
+     *
+     * @param msg     - group message
+     * @param members - group members
+     * @return messages for each member
+     */
+    public static List<SecureMessage> split(SecureMessage msg, Collection<ID> members) {
+        // one snapshot shared by all members
+        OverlayMap base = OverlayMap.share(msg.toMap());
+        Object group = getGroup(msg);
+        Map<String, Object> keys = msg.getEncryptedKeys();
+        List<SecureMessage> messages = new ArrayList<>(members.size());
+        SecureMessage item;
+        for (ID member : members) {
+            item = SecureMessage.parse(view(base, group, keys, member));
+            if (item != null) {
+                messages.add(item);
+            }
+        }
+        return messages;
+    }
+
+    public static List<ReliableMessage> split(ReliableMessage msg, Collection<ID> members) {
+        // one snapshot shared by all members
+        OverlayMap base = OverlayMap.share(msg.toMap());
+        Object group = getGroup(msg);
+        Map<String, Object> keys = msg.getEncryptedKeys();
+        List<ReliableMessage> messages = new ArrayList<>(members.size());
+        ReliableMessage item;
+        for (ID member : members) {
+            item = ReliableMessage.parse(view(base, group, keys, member));
+            if (item != null) {
+                messages.add(item);
+            }
+        }
+        return messages;
+    }
+
+    private static Object getGroup(SecureMessage msg) {
+        Object group = msg.get("group");
+        if (group == null) {
+            ID receiver = msg.getReceiver();
+            if (receiver != null && receiver.isGroup()) {
+                group = receiver.toString();
+            }
+        }
+        return group;
+    }
+
+    private static Map<String, Object> view(OverlayMap base, Object group,
+                                            Map<String, Object> keys, ID member) {
+        OverlayMap info = base.fork();
+        info.remove("keys");
+        info.put("receiver", member.toString());
+        if (group != null) {
+            info.put("group", group);
+        }
+        Object key = keys == null ? null : keys.get(member.toString());
+        if (key == null) {
+            info.remove("key");
+        } else {
+            info.put("key", key);
+        }
+        return info;
+    }
+
+}
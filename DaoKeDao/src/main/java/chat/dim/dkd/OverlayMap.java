@@ -0,0 +1,249 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.dkd;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ *  Overlay Map
+ *  <p>
+ *      A map view over a shared base map; changes are kept in this view only,
+ *      so many views can share one base map without copying it.
+ *  </p>
+ *  <p>
+ *      The base is a frozen (unmodifiable) snapshot of the source map's
+ *      top-level entries, taken once when the first view is created;
+ *      later views forked from it share the same snapshot, so changes on the
+ *      source map or on any view never show up in the other views.
+ *      Nested values (e.g. maps, lists) are not copied.
+ *      This class is not thread-safe, same as HashMap.
+ *  </p>
+ */
+public class OverlayMap extends AbstractMap<String, Object> {
+
+    // mark for the keys removed from base
+    private static final Object REMOVED = new Object();
+
+    // merge changes into a new base when forking with more changes than this
+    static final int MAX_CHANGES = 16;
+
+    private final Map<String, Object> base;     // frozen
+    private final Map<String, Object> changes;
+
+    private OverlayMap(Map<String, Object> base, Map<String, Object> changes) {
+        super();
+        this.base = base;
+        this.changes = changes;
+    }
+
+    /**
+     *  Create a view on the snapshot of the source map
+     *
+     * @param source - source map, may be changed later
+     */
+    public OverlayMap(Map<String, Object> source) {
+        this(freeze(source), new HashMap<>(8));
+    }
+
+    private static Map<String, Object> freeze(Map<String, Object> source) {
+        return Collections.unmodifiableMap(new HashMap<>(source));
+    }
+
+    /**
+     *  Create another view with the same base &amp; changes
+     *  <p>
+     *      When changes grow too many, they will be merged into a new base.
+     *  </p>
+     *
+     * @return new view
+     */
+    public OverlayMap fork() {
+        if (changes.size() > MAX_CHANGES) {
+            return new OverlayMap(this);
+        }
+        return new OverlayMap(base, new HashMap<>(changes));
+    }
+
+    /**
+     *  Create a copy-on-write view for the map
+     *  <p>
+     *      For a plain map, its top-level entries are copied into a frozen
+     *      snapshot once; fork the returned view to make more copies cheaply.
+     *  </p>
+     *
+     * @param map - source map
+     * @return new view
+     */
+    public static OverlayMap share(Map<String, Object> map) {
+        if (map instanceof OverlayMap) {
+            return ((OverlayMap) map).fork();
+        }
+        return new OverlayMap(map);
+    }
+
+    @Override
+    public Object get(Object key) {
+        Object value = changes.get(key);
+        if (value == REMOVED) {
+            return null;
+        } else if (value == null && !changes.containsKey(key)) {
+            return base.get(key);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        Object value = changes.get(key);
+        if (value == REMOVED) {
+            return false;
+        } else if (value == null && !changes.containsKey(key)) {
+            return base.containsKey(key);
+        }
+        return true;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        Object old = get(key);
+        changes.put(key, value);
+        return old;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        Object old = get(key);
+        if (base.containsKey(key)) {
+            changes.put((String) key, REMOVED);
+        } else {
+            changes.remove(key);
+        }
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        changes.clear();
+        for (String key : base.keySet()) {
+            changes.put(key, REMOVED);
+        }
+    }
+
+    @Override
+    public int size() {
+        int count = base.size();
+        boolean inBase;
+        for (Map.Entry<String, Object> entry : changes.entrySet()) {
+            inBase = base.containsKey(entry.getKey());
+            if (entry.getValue() == REMOVED) {
+                if (inBase) {
+                    --count;
+                }
+            } else if (!inBase) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<Map.Entry<String, Object>>() {
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return OverlayMap.this.size();
+            }
+        };
+    }
+
+    /**
+     *  Iterates keys in base first, then the new keys in changes
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+        private final String[] keys;
+        private int index = 0;
+        private String lastKey = null;
+
+        EntryIterator() {
+            List<String> array = new ArrayList<>(base.size() + changes.size());
+            for (String key : base.keySet()) {
+                if (changes.get(key) != REMOVED) {
+                    array.add(key);
+                }
+            }
+            for (Map.Entry<String, Object> entry : changes.entrySet()) {
+                if (entry.getValue() != REMOVED && !base.containsKey(entry.getKey())) {
+                    array.add(entry.getKey());
+                }
+            }
+            keys = array.toArray(new String[0]);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < keys.length;
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (index >= keys.length) {
+                throw new NoSuchElementException();
+            }
+            lastKey = keys[index++];
+            return new SimpleImmutableEntry<>(lastKey, get(lastKey));
+        }
+
+        @Override
+        public void remove() {
+            if (lastKey == null) {
+                throw new IllegalStateException();
+            }
+            OverlayMap.this.remove(lastKey);
+            lastKey = null;
+        }
+    }
+
+}
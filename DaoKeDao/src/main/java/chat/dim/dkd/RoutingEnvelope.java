@@ -0,0 +1,287 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.dkd;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import chat.dim.data.Wrapper;
+import chat.dim.format.JSONScanner;
+import chat.dim.protocol.Envelope;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.ReliableMessage;
+import chat.dim.protocol.TransportableData;
+import chat.dim.type.Dictionary;
+
+/**
+ *  Envelope view for routing
+ *  <p>
+ *      A station needs only 'sender', 'receiver', 'group' &amp; 'type' to deliver a message,
+ *      this view picks them from the raw message (map or JSON bytes) without parsing
+ *      the whole message, and 'data'/'signature' will be decoded only when accessed.
+ *  </p>
+ *  <p>
+ *      If created from a byte buffer, the buffer content must not be changed
+ *      while this view is alive.
+ *  </p>
+ */
+public class RoutingEnvelope extends Dictionary implements Envelope {
+
+    private static final String[] ROUTING_FIELDS = {"sender", "receiver", "time", "group", "type"};
+
+    private ID sender = null;
+    private ID receiver = null;
+    private ID group = null;
+
+    private TransportableData data = null;
+    private TransportableData signature = null;
+
+    // JSON source, null when created from a map
+    private final ByteBuffer source;
+    private final int start;
+    private final int end;
+    // value ranges of 'data' & 'signature' in source
+    private final int[] dataRange;
+    private final int[] signatureRange;
+
+    public RoutingEnvelope(Map<String, Object> msg) {
+        super(msg);
+        source = null;
+        start = end = 0;
+        dataRange = signatureRange = null;
+    }
+
+    protected RoutingEnvelope(Map<String, Object> fields, ByteBuffer source, int start, int end,
+                              int[] dataRange, int[] signatureRange) {
+        super(fields);
+        this.source = source;
+        this.start = start;
+        this.end = end;
+        this.dataRange = dataRange;
+        this.signatureRange = signatureRange;
+    }
+
+    @Override
+    public ID getSender() {
+        ID from = sender;
+        if (from == null) {
+            from = sender = ID.parse(get("sender"));
+        }
+        return from;
+    }
+
+    @Override
+    public ID getReceiver() {
+        ID to = receiver;
+        if (to == null) {
+            to = ID.parse(get("receiver"));
+            if (to == null) {
+                to = ID.ANYONE;
+            }
+            receiver = to;
+        }
+        return to;
+    }
+
+    @Override
+    public Date getTime() {
+        return getDateTime("time");
+    }
+
+    @Override
+    public long getTimeMillis() {
+        Object time = get("time");
+        if (time instanceof Number) {
+            return (long) (((Number) time).doubleValue() * 1000);
+        }
+        return Envelope.super.getTimeMillis();
+    }
+
+    @Override
+    public ID getGroup() {
+        ID gid = group;
+        if (gid == null) {
+            gid = group = ID.parse(get("group"));
+        }
+        return gid;
+    }
+
+    @Override
+    public void setGroup(ID gid) {
+        setString("group", gid);
+        group = gid;
+    }
+
+    @Override
+    public String getType() {
+        return getString("type");
+    }
+
+    @Override
+    public void setType(String type) {
+        if (type == null) {
+            remove("type");
+        } else {
+            put("type", type);
+        }
+    }
+
+    //
+    //  Message body, decoded when accessed
+    //
+
+    public TransportableData getData() {
+        TransportableData ted = data;
+        if (ted == null) {
+            ted = data = LazyTransportableData.parse(getRawValue("data", dataRange));
+        }
+        return ted;
+    }
+
+    public TransportableData getSignature() {
+        TransportableData ted = signature;
+        if (ted == null) {
+            ted = signature = LazyTransportableData.parse(getRawValue("signature", signatureRange));
+        }
+        return ted;
+    }
+
+    private Object getRawValue(String key, int[] range) {
+        if (range == null) {
+            return get(key);
+        }
+        return new JSONScanner(source, range[0], range[1]).readValue();
+    }
+
+    /**
+     *  Parse the whole message
+     *
+     * @return null on error
+     */
+    public ReliableMessage getReliableMessage() {
+        if (source == null) {
+            return ReliableMessage.parse(toMap());
+        }
+        Map<String, Object> info;
+        try {
+            JSONScanner scanner = new JSONScanner(source, start, end);
+            info = scanner.readObject();
+            scanner.endDocument();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        // routing fields may be changed or removed
+        for (String name : ROUTING_FIELDS) {
+            if (!containsKey(name)) {
+                info.remove(name);
+            }
+        }
+        info.putAll(toMap());
+        return ReliableMessage.parse(info);
+    }
+
+    //
+    //  Factory methods
+    //
+
+    public static RoutingEnvelope parse(Object msg) {
+        if (msg == null) {
+            return null;
+        } else if (msg instanceof RoutingEnvelope) {
+            return (RoutingEnvelope) msg;
+        } else if (msg instanceof ByteBuffer) {
+            return parse((ByteBuffer) msg);
+        } else if (msg instanceof byte[]) {
+            return parse(ByteBuffer.wrap((byte[]) msg));
+        }
+        Map<String, Object> info = Wrapper.getMap(msg);
+        if (info == null || info.get("sender") == null) {
+            return null;
+        }
+        return new RoutingEnvelope(info);
+    }
+
+    /**
+     *  Pick routing fields from a JSON message
+     *
+     * @param json - UTF-8 bytes of a message, from position to limit
+     * @return null on error
+     */
+    public static RoutingEnvelope parse(ByteBuffer json) {
+        int start = json.position();
+        int end = json.limit();
+        JSONScanner scanner = new JSONScanner(json, start, end);
+        Map<String, Object> fields = new HashMap<>();
+        int[] dataRange = null;
+        int[] signatureRange = null;
+        try {
+            scanner.beginObject();
+            String name;
+            while ((name = scanner.nextName()) != null) {
+                switch (name) {
+                    case "sender":
+                    case "receiver":
+                    case "time":
+                    case "group":
+                    case "type":
+                        fields.put(name, scanner.readValue());
+                        break;
+                    case "data":
+                        dataRange = skipValue(scanner);
+                        break;
+                    case "signature":
+                        signatureRange = skipValue(scanner);
+                        break;
+                    default:
+                        scanner.skipValue();
+                        break;
+                }
+            }
+            scanner.endDocument();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (fields.get("sender") == null) {
+            return null;
+        }
+        return new RoutingEnvelope(fields, json, start, end, dataRange, signatureRange);
+    }
+
+    private static int[] skipValue(JSONScanner scanner) {
+        scanner.peek();
+        int from = scanner.getPosition();
+        scanner.skipValue();
+        return new int[]{from, scanner.getPosition()};
+    }
+
+}
@@ -0,0 +1,113 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.dkd;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ *  Serial Number Generator
+ *  <p>
+ *      Generates unique SN for messages without locking.
+ *      Each thread picks a stripe by its thread ID, and every stripe keeps
+ *      its own sequence which is advanced by CAS, so threads on different
+ *      stripes never contend, and threads sharing a stripe never collide.
+ *  </p>
+ *
+ *  <blockquote><pre>
+ *  SN layout (63 bits):
+ *      +-------------------+--------------+-------------+
+ *      |  time (41 bits)   | seq (12 bits)| stripe (10) |
+ *      +-------------------+--------------+-------------+
+ *      time   - milliseconds since 2019-01-01 UTC
+ *      seq    - sequence in the same millisecond,
+ *               borrows the next millisecond when overflow
+ *      stripe - thread stripe
+ *  </pre></blockquote>
+ */
+public class SerialNumberGenerator {
+
+    public static final long EPOCH = 1546300800000L;  // 2019-01-01 00:00:00 UTC
+
+    static final int SEQUENCE_BITS = 12;
+    static final int STRIPE_BITS = 10;
+    static final int STRIPE_MASK = (1 << STRIPE_BITS) - 1;
+
+    // 8 longs (64 bytes) for each stripe to avoid false sharing
+    private static final int PADDING_SHIFT = 3;
+
+    private final AtomicLongArray states = new AtomicLongArray((STRIPE_MASK + 1) << PADDING_SHIFT);
+
+    private static final SerialNumberGenerator shared = new SerialNumberGenerator();
+
+    /**
+     *  Get the generator shared by all message factories,
+     *  two generators may give the same SN in the same millisecond
+     */
+    public static SerialNumberGenerator getInstance() {
+        return shared;
+    }
+
+    /**
+     *  Generate SN for message content
+     *
+     * @param msgType - content type (not used)
+     * @param now     - message time
+     * @return SN (positive uint64, serial number as msg id)
+     */
+    public long generateSerialNumber(String msgType, Date now) {
+        long millis = now == null ? System.currentTimeMillis() : now.getTime();
+        return generate(millis);
+    }
+
+    public long generate(long millis) {
+        int stripe = (int) Thread.currentThread().getId() & STRIPE_MASK;
+        int slot = stripe << PADDING_SHIFT;
+        long floor = Math.max(millis - EPOCH, 0) << SEQUENCE_BITS;
+        long prev, next;
+        do {
+            prev = states.get(slot);
+            next = prev < floor ? floor : prev + 1;
+        } while (!states.compareAndSet(slot, prev, next));
+        return (next << STRIPE_BITS) | stripe;
+    }
+
+    /**
+     *  Get time embedded in SN
+     *
+     * @param sn - serial number
+     * @return milliseconds since 1970
+     */
+    public static long getTime(long sn) {
+        return (sn >>> (STRIPE_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+
+}
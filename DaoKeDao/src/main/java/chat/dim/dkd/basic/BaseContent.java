@@ -0,0 +1,125 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.dkd.basic;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import chat.dim.protocol.Content;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.InstantMessage;
+import chat.dim.type.Dictionary;
+
+/**
+ *  Base Content
+ *  <p>
+ *      'type', 'sn' and 'time' are read once and kept in fields.
+ *  </p>
+ */
+public class BaseContent extends Dictionary implements Content {
+
+    // message type: text, image, ...
+    private String type;
+
+    // serial number: random number to identify message content
+    private long sn;
+
+    // message time
+    private long time;  // milliseconds, -1 when not loaded
+
+    public BaseContent(Map<String, Object> content) {
+        super(content);
+        // lazy load
+        type = null;
+        sn = -1;
+        time = -1;
+    }
+
+    public BaseContent(String msgType) {
+        super(new HashMap<>());
+        Date now = new Date();
+        type = msgType;
+        sn = InstantMessage.generateSerialNumber(msgType, now);
+        time = now.getTime();
+        put("type", type);
+        put("sn", sn);
+        put("time", time / 1000.0);
+    }
+
+    @Override
+    public String getType() {
+        String msgType = type;
+        if (msgType == null) {
+            msgType = type = getString("type", "");
+        }
+        return msgType;
+    }
+
+    @Override
+    public long getSerialNumber() {
+        long serial = sn;
+        if (serial < 0) {
+            serial = sn = getLong("sn", 0L);
+        }
+        return serial;
+    }
+
+    @Override
+    public Date getTime() {
+        long millis = getTimeMillis();
+        return millis > 0 ? new Date(millis) : null;
+    }
+
+    @Override
+    public long getTimeMillis() {
+        long millis = time;
+        if (millis < 0) {
+            Object value = get("time");
+            millis = value instanceof Number ? (long) (((Number) value).doubleValue() * 1000) : 0;
+            time = millis;
+        }
+        return millis;
+    }
+
+    // Group ID/string for group message
+    //    if field 'group' exists, it means this is a group message
+    @Override
+    public ID getGroup() {
+        return ID.parse(get("group"));
+    }
+
+    @Override
+    public void setGroup(ID group) {
+        setString("group", group);
+    }
+
+}
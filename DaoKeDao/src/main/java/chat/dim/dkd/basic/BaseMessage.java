@@ -0,0 +1,128 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.dkd.basic;
+
+import java.util.Date;
+import java.util.Map;
+
+import chat.dim.ext.MessageExtensionContext;
+import chat.dim.ext.SharedMessageExtensions;
+import chat.dim.protocol.Envelope;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.Message;
+import chat.dim.type.Dictionary;
+
+/**
+ *  Base Message
+ *  <p>
+ *      The envelope fields are in the message map,
+ *      the envelope is created from the same map when first used.
+ *  </p>
+ *  <p>
+ *      Parts parsed lazily use the helpers of the context
+ *      which created this message, on whatever thread they are read.
+ *  </p>
+ */
+public abstract class BaseMessage extends Dictionary implements Message {
+
+    private final MessageExtensionContext context;
+
+    private Envelope envelope;
+
+    protected BaseMessage(Map<String, Object> msg, MessageExtensionContext context) {
+        super(msg);
+        this.context = context;
+        // lazy load
+        envelope = null;
+    }
+
+    protected BaseMessage(Envelope env, MessageExtensionContext context) {
+        // copy, the envelope may be shared by several messages
+        super(env.copyMap(false));
+        this.context = context;
+        // lazy load, from the message's own map
+        envelope = null;
+    }
+
+    protected BaseMessage(Map<String, Object> msg) {
+        this(msg, SharedMessageExtensions.getDefaultContext());
+    }
+
+    protected BaseMessage(Envelope env) {
+        this(env, SharedMessageExtensions.getDefaultContext());
+    }
+
+    protected MessageExtensionContext getContext() {
+        return context;
+    }
+
+    @Override
+    public Envelope getEnvelope() {
+        Envelope env = envelope;
+        if (env == null) {
+            // share the same map
+            env = envelope = context.parseEnvelope(toMap());
+            assert env != null : "message envelope error: " + this;
+        }
+        return env;
+    }
+
+    @Override
+    public ID getSender() {
+        return getEnvelope().getSender();
+    }
+
+    @Override
+    public ID getReceiver() {
+        return getEnvelope().getReceiver();
+    }
+
+    @Override
+    public Date getTime() {
+        return getEnvelope().getTime();
+    }
+
+    @Override
+    public long getTimeMillis() {
+        return getEnvelope().getTimeMillis();
+    }
+
+    @Override
+    public ID getGroup() {
+        return getEnvelope().getGroup();
+    }
+
+    @Override
+    public String getType() {
+        return getEnvelope().getType();
+    }
+
+}
@@ -0,0 +1,134 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.dkd.basic;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import chat.dim.protocol.Envelope;
+import chat.dim.protocol.ID;
+import chat.dim.type.Dictionary;
+
+/**
+ *  Envelope for message
+ *  <p>
+ *      IDs are parsed once and kept in fields.
+ *  </p>
+ */
+public class MessageEnvelope extends Dictionary implements Envelope {
+
+    private ID sender;
+    private ID receiver;
+    private long time;  // milliseconds, -1 when not loaded
+
+    public MessageEnvelope(Map<String, Object> env) {
+        super(env);
+        // lazy load
+        sender = null;
+        receiver = null;
+        time = -1;
+    }
+
+    public MessageEnvelope(ID from, ID to, long millis) {
+        super(new HashMap<>());
+        sender = from;
+        receiver = to == null ? ID.ANYONE : to;
+        time = millis;
+        setString("sender", sender);
+        setString("receiver", receiver);
+        put("time", millis / 1000.0);
+    }
+
+    @Override
+    public ID getSender() {
+        ID from = sender;
+        if (from == null) {
+            from = sender = ID.parse(get("sender"));
+        }
+        return from;
+    }
+
+    @Override
+    public ID getReceiver() {
+        ID to = receiver;
+        if (to == null) {
+            to = ID.parse(get("receiver"));
+            if (to == null) {
+                to = ID.ANYONE;
+            }
+            receiver = to;
+        }
+        return to;
+    }
+
+    @Override
+    public Date getTime() {
+        long millis = getTimeMillis();
+        return millis > 0 ? new Date(millis) : null;
+    }
+
+    @Override
+    public long getTimeMillis() {
+        long millis = time;
+        if (millis < 0) {
+            Object value = get("time");
+            millis = value instanceof Number ? (long) (((Number) value).doubleValue() * 1000) : 0;
+            time = millis;
+        }
+        return millis;
+    }
+
+    @Override
+    public ID getGroup() {
+        return ID.parse(get("group"));
+    }
+
+    @Override
+    public void setGroup(ID group) {
+        setString("group", group);
+    }
+
+    @Override
+    public String getType() {
+        return getString("type");
+    }
+
+    @Override
+    public void setType(String type) {
+        if (type == null) {
+            remove("type");
+        } else {
+            put("type", type);
+        }
+    }
+
+}
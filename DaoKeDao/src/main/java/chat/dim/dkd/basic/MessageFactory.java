@@ -0,0 +1,170 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.dkd.basic;
+
+import java.util.Date;
+import java.util.Map;
+
+import chat.dim.dkd.SerialNumberGenerator;
+import chat.dim.ext.MessageExtensionContext;
+import chat.dim.ext.SharedMessageExtensions;
+import chat.dim.protocol.Content;
+import chat.dim.protocol.Envelope;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.InstantMessage;
+import chat.dim.protocol.ReliableMessage;
+import chat.dim.protocol.SecureMessage;
+
+/**
+ *  General Message Factory
+ *  <p>
+ *      Creates/parses envelopes and messages,
+ *      serial numbers come from 'SerialNumberGenerator'.
+ *  </p>
+ *  <p>
+ *      Messages are bound to the context of this factory,
+ *      their lazy parts (envelope, content) are parsed by it.
+ *  </p>
+ */
+public class MessageFactory implements Envelope.Factory,
+                                       InstantMessage.Factory, SecureMessage.Factory, ReliableMessage.Factory {
+
+    private final MessageExtensionContext context;
+    private final SerialNumberGenerator snGenerator;
+
+    public MessageFactory(MessageExtensionContext context, SerialNumberGenerator generator) {
+        super();
+        this.context = context;
+        snGenerator = generator;
+    }
+
+    public MessageFactory(MessageExtensionContext context) {
+        this(context, SerialNumberGenerator.getInstance());
+    }
+
+    public MessageFactory(SerialNumberGenerator generator) {
+        this(SharedMessageExtensions.getDefaultContext(), generator);
+    }
+
+    public MessageFactory() {
+        this(SerialNumberGenerator.getInstance());
+    }
+
+    public MessageExtensionContext getContext() {
+        return context;
+    }
+
+    //
+    //  Envelope
+    //
+
+    @Override
+    public Envelope createEnvelope(ID from, ID to, Date when) {
+        long millis = when == null ? System.currentTimeMillis() : when.getTime();
+        return new MessageEnvelope(from, to, millis);
+    }
+
+    @Override
+    public Envelope createEnvelope(ID from, ID to, long millis) {
+        return new MessageEnvelope(from, to, millis);
+    }
+
+    @Override
+    public Envelope parseEnvelope(Map<String, Object> env) {
+        // check 'sender'
+        if (env.get("sender") == null) {
+            // env.sender should not empty
+            return null;
+        }
+        return new MessageEnvelope(env);
+    }
+
+    //
+    //  Instant Message
+    //
+
+    @Override
+    public long generateSerialNumber(String msgType, Date now) {
+        return snGenerator.generateSerialNumber(msgType, now);
+    }
+
+    @Override
+    public InstantMessage createInstantMessage(Envelope head, Content body) {
+        return new PlainMessage(head, body, context);
+    }
+
+    @Override
+    public InstantMessage parseInstantMessage(Map<String, Object> msg) {
+        // check 'sender', 'content'
+        if (msg.get("sender") == null || msg.get("content") == null) {
+            // msg.sender should not be empty
+            // msg.content should not be empty
+            return null;
+        }
+        return new PlainMessage(msg, context);
+    }
+
+    //
+    //  Secure Message
+    //
+
+    @Override
+    public SecureMessage parseSecureMessage(Map<String, Object> msg) {
+        // check 'sender', 'data'
+        if (msg.get("sender") == null || msg.get("data") == null) {
+            // msg.sender should not be empty
+            // msg.data should not be empty
+            return null;
+        }
+        // check 'signature'
+        if (msg.get("signature") != null) {
+            return new NetworkMessage(msg, context);
+        }
+        return new EncryptedMessage(msg, context);
+    }
+
+    //
+    //  Reliable Message
+    //
+
+    @Override
+    public ReliableMessage parseReliableMessage(Map<String, Object> msg) {
+        // check 'sender', 'data', 'signature'
+        if (msg.get("sender") == null || msg.get("data") == null || msg.get("signature") == null) {
+            // msg.sender should not be empty
+            // msg.data should not be empty
+            // msg.signature should not be empty
+            return null;
+        }
+        return new NetworkMessage(msg, context);
+    }
+
+}
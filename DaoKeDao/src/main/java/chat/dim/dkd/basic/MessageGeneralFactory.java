@@ -0,0 +1,368 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.dkd.basic;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+
+import chat.dim.data.Converter;
+import chat.dim.data.Wrapper;
+import chat.dim.ext.ContentFactoryRegistry;
+import chat.dim.ext.ContentHelper;
+import chat.dim.ext.EnvelopeHelper;
+import chat.dim.ext.GeneralMessageHelper;
+import chat.dim.ext.InstantMessageHelper;
+import chat.dim.ext.MessageExtensionContext;
+import chat.dim.ext.ReliableMessageHelper;
+import chat.dim.ext.SecureMessageHelper;
+import chat.dim.ext.SharedMessageExtensions;
+import chat.dim.format.JSONScanner;
+import chat.dim.protocol.Content;
+import chat.dim.protocol.Envelope;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.InstantMessage;
+import chat.dim.protocol.ReliableMessage;
+import chat.dim.protocol.SecureMessage;
+
+/**
+ *  Message GeneralFactory
+ *  <p>
+ *      Default implementation of the message helpers,
+ *      content factories are kept in 'ContentFactoryRegistry',
+ *      other factories are volatile fields, so they can be read
+ *      and replaced from any thread without locking.
+ *  </p>
+ *
+ *  <blockquote><pre>
+ *  Usage:
+ *      MessageGeneralFactory.install();
+ *      Content.setFactory(ContentType.TEXT, TextContent::new);
+ *  </pre></blockquote>
+ */
+public class MessageGeneralFactory implements GeneralMessageHelper,
+                                              ContentHelper, EnvelopeHelper,
+                                              InstantMessageHelper, SecureMessageHelper, ReliableMessageHelper {
+
+    private final ContentFactoryRegistry contentFactories = new ContentFactoryRegistry();
+
+    private volatile Envelope.Factory envelopeFactory = null;
+
+    private volatile InstantMessage.Factory instantMessageFactory = null;
+    private volatile SecureMessage.Factory secureMessageFactory = null;
+    private volatile ReliableMessage.Factory reliableMessageFactory = null;
+
+    @Override
+    public String getContentType(Map<?, ?> content, String defaultValue) {
+        return Converter.getString(content.get("type"), defaultValue);
+    }
+
+    //
+    //  Content
+    //
+
+    @Override
+    public void setContentFactory(String type, Content.Factory factory) {
+        contentFactories.setContentFactory(type, factory);
+    }
+
+    @Override
+    public Content.Factory getContentFactory(String type) {
+        return contentFactories.getContentFactory(type);
+    }
+
+    @Override
+    public Content parseContent(Object content) {
+        if (content == null) {
+            return null;
+        } else if (content instanceof Content) {
+            return (Content) content;
+        }
+        Map<String, Object> info = getMap(content);
+        if (info == null) {
+            return null;
+        }
+        // get factory by content type
+        String type = getContentType(info, null);
+        Content.Factory factory = type == null ? null : getContentFactory(type);
+        if (factory == null) {
+            // unknown content type, get default content factory
+            factory = getContentFactory("*");
+            assert factory != null : "default content factory not found";
+        }
+        return factory.parseContent(info);
+    }
+
+    //
+    //  Envelope
+    //
+
+    @Override
+    public void setEnvelopeFactory(Envelope.Factory factory) {
+        envelopeFactory = factory;
+    }
+
+    @Override
+    public Envelope.Factory getEnvelopeFactory() {
+        return envelopeFactory;
+    }
+
+    @Override
+    public Envelope createEnvelope(ID from, ID to, Date when) {
+        Envelope.Factory factory = getEnvelopeFactory();
+        assert factory != null : "envelope factory not ready";
+        return factory.createEnvelope(from, to, when);
+    }
+
+    @Override
+    public Envelope createEnvelope(ID from, ID to, long millis) {
+        Envelope.Factory factory = getEnvelopeFactory();
+        assert factory != null : "envelope factory not ready";
+        return factory.createEnvelope(from, to, millis);
+    }
+
+    @Override
+    public Envelope parseEnvelope(Object env) {
+        if (env == null) {
+            return null;
+        } else if (env instanceof Envelope) {
+            return (Envelope) env;
+        }
+        Map<String, Object> info = getMap(env);
+        if (info == null) {
+            return null;
+        }
+        Envelope.Factory factory = getEnvelopeFactory();
+        assert factory != null : "envelope factory not ready";
+        return factory.parseEnvelope(info);
+    }
+
+    //
+    //  Instant Message
+    //
+
+    @Override
+    public void setInstantMessageFactory(InstantMessage.Factory factory) {
+        instantMessageFactory = factory;
+    }
+
+    @Override
+    public InstantMessage.Factory getInstantMessageFactory() {
+        return instantMessageFactory;
+    }
+
+    @Override
+    public InstantMessage createInstantMessage(Envelope head, Content body) {
+        InstantMessage.Factory factory = getInstantMessageFactory();
+        assert factory != null : "instant message factory not ready";
+        return factory.createInstantMessage(head, body);
+    }
+
+    @Override
+    public InstantMessage parseInstantMessage(Object msg) {
+        if (msg == null) {
+            return null;
+        } else if (msg instanceof InstantMessage) {
+            return (InstantMessage) msg;
+        }
+        Map<String, Object> info = getMap(msg);
+        if (info == null) {
+            return null;
+        }
+        InstantMessage.Factory factory = getInstantMessageFactory();
+        assert factory != null : "instant message factory not ready";
+        return factory.parseInstantMessage(info);
+    }
+
+    @Override
+    public long generateSerialNumber(String msgType, Date now) {
+        InstantMessage.Factory factory = getInstantMessageFactory();
+        assert factory != null : "instant message factory not ready";
+        return factory.generateSerialNumber(msgType, now);
+    }
+
+    //
+    //  Secure Message
+    //
+
+    @Override
+    public void setSecureMessageFactory(SecureMessage.Factory factory) {
+        secureMessageFactory = factory;
+    }
+
+    @Override
+    public SecureMessage.Factory getSecureMessageFactory() {
+        return secureMessageFactory;
+    }
+
+    @Override
+    public SecureMessage parseSecureMessage(Object msg) {
+        if (msg == null) {
+            return null;
+        } else if (msg instanceof SecureMessage) {
+            return (SecureMessage) msg;
+        }
+        Map<String, Object> info = getMap(msg);
+        if (info == null) {
+            return null;
+        }
+        SecureMessage.Factory factory = getSecureMessageFactory();
+        assert factory != null : "secure message factory not ready";
+        return factory.parseSecureMessage(info);
+    }
+
+    //
+    //  Reliable Message
+    //
+
+    @Override
+    public void setReliableMessageFactory(ReliableMessage.Factory factory) {
+        reliableMessageFactory = factory;
+    }
+
+    @Override
+    public ReliableMessage.Factory getReliableMessageFactory() {
+        return reliableMessageFactory;
+    }
+
+    @Override
+    public ReliableMessage parseReliableMessage(Object msg) {
+        if (msg == null) {
+            return null;
+        } else if (msg instanceof ReliableMessage) {
+            return (ReliableMessage) msg;
+        }
+        Map<String, Object> info = getMap(msg);
+        if (info == null) {
+            return null;
+        }
+        ReliableMessage.Factory factory = getReliableMessageFactory();
+        assert factory != null : "reliable message factory not ready";
+        return factory.parseReliableMessage(info);
+    }
+
+    /**
+     *  Get map from Mapper/Map, or decode JSON string
+     */
+    protected static Map<String, Object> getMap(Object info) {
+        if (info instanceof String) {
+            byte[] json = ((String) info).getBytes(StandardCharsets.UTF_8);
+            JSONScanner scanner = new JSONScanner(ByteBuffer.wrap(json));
+            try {
+                Map<String, Object> map = scanner.readObject();
+                scanner.endDocument();
+                return map;
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return Wrapper.getMap(info);
+    }
+
+    //
+    //  Installation
+    //
+
+    private static MessageGeneralFactory shared = null;
+
+    /**
+     *  Create a helper with the default message factories,
+     *  messages created by it are bound to the context
+     */
+    public static MessageGeneralFactory create(MessageExtensionContext context) {
+        MessageGeneralFactory helper = new MessageGeneralFactory();
+        MessageFactory factory = new MessageFactory(context);
+        helper.setEnvelopeFactory(factory);
+        helper.setInstantMessageFactory(factory);
+        helper.setSecureMessageFactory(factory);
+        helper.setReliableMessageFactory(factory);
+        // default content factory
+        helper.setContentFactory("*", BaseContent::new);
+        return helper;
+    }
+
+    public static MessageGeneralFactory create() {
+        return create(SharedMessageExtensions.getDefaultContext());
+    }
+
+    /**
+     *  Create the default helper (once),
+     *  and set it into the empty fields of the default context
+     *
+     * @return shared helper
+     */
+    public static synchronized MessageGeneralFactory install() {
+        MessageGeneralFactory helper = shared;
+        if (helper == null) {
+            helper = shared = create();
+        }
+        install(helper, SharedMessageExtensions.getDefaultContext());
+        return helper;
+    }
+
+    /**
+     *  Create a new helper for the context,
+     *  and set it into the empty fields of it
+     *
+     * @return helper for this context
+     */
+    public static MessageGeneralFactory install(MessageExtensionContext context) {
+        MessageGeneralFactory helper = create(context);
+        install(helper, context);
+        return helper;
+    }
+
+    private static void install(MessageGeneralFactory helper, MessageExtensionContext context) {
+        context.update(ext -> {
+            if (ext.getHelper() == null) {
+                ext = ext.withHelper(helper);
+            }
+            if (ext.getContentHelper() == null) {
+                ext = ext.withContentHelper(helper);
+            }
+            if (ext.getEnvelopeHelper() == null) {
+                ext = ext.withEnvelopeHelper(helper);
+            }
+            if (ext.getInstantHelper() == null) {
+                ext = ext.withInstantHelper(helper);
+            }
+            if (ext.getSecureHelper() == null) {
+                ext = ext.withSecureHelper(helper);
+            }
+            if (ext.getReliableHelper() == null) {
+                ext = ext.withReliableHelper(helper);
+            }
+            return ext;
+        });
+    }
+
+}
@@ -0,0 +1,84 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.dkd.basic;
+
+import java.util.Map;
+
+import chat.dim.dkd.LazyTransportableData;
+import chat.dim.ext.MessageExtensionContext;
+import chat.dim.protocol.ReliableMessage;
+import chat.dim.protocol.TransportableData;
+
+/**
+ *  Reliable Message signed by an asymmetric key
+ *
+ *  <blockquote><pre>
+ *  data format: {
+ *      //-- envelope
+ *      sender   : "moki@xxx",
+ *      receiver : "hulk@yyy",
+ *      time     : 123,
+ *      //-- content data and key/keys
+ *      data     : "...",  // base64_encode( symmetric_encrypt(content))
+ *      key      : "...",  // base64_encode(asymmetric_encrypt(password))
+ *      keys     : {...},
+ *      //-- signature
+ *      signature: "..."   // base64_encode(asymmetric_sign(data))
+ *  }
+ *  </pre></blockquote>
+ */
+public class NetworkMessage extends EncryptedMessage implements ReliableMessage {
+
+    private TransportableData signature;
+
+    public NetworkMessage(Map<String, Object> msg, MessageExtensionContext context) {
+        super(msg, context);
+        // lazy load
+        signature = null;
+    }
+
+    public NetworkMessage(Map<String, Object> msg) {
+        super(msg);
+        // lazy load
+        signature = null;
+    }
+
+    @Override
+    public TransportableData getSignature() {
+        TransportableData ted = signature;
+        if (ted == null) {
+            ted = signature = LazyTransportableData.parse(get("signature"));
+            assert ted != null : "message signature error: " + get("signature");
+        }
+        return ted;
+    }
+
+}
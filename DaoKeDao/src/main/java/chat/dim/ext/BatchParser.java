@@ -0,0 +1,177 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.ext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ *  Batch Parser
+ *  <p>
+ *      Parse a list of raw maps across an executor,
+ *      the results are kept in the same order with the input,
+ *      and a failure on one item will not abort the whole batch.
+ *  </p>
+ *  <p>
+ *      If the batch is smaller than the threshold,
+ *      it will be parsed sequentially on the caller's thread.
+ *  </p>
+ */
+public class BatchParser {
+
+    public static final int DEFAULT_THRESHOLD = 256;
+
+    private final Executor executor;
+    private final int parallelism;
+    private final int threshold;
+
+    public BatchParser(Executor executor, int parallelism, int threshold) {
+        super();
+        assert parallelism > 0 : "parallelism error: " + parallelism;
+        assert threshold > 0 : "threshold error: " + threshold;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.threshold = threshold;
+    }
+
+    public BatchParser(ForkJoinPool pool, int threshold) {
+        this(pool, pool.getParallelism(), threshold);
+    }
+
+    public BatchParser() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     *  Parse all items with the parser function
+     *
+     * @param items  - raw objects
+     * @param parser - parse function
+     * @return results in the same order with items
+     */
+    public <T> List<Result<T>> parse(List<?> items, Function<Object, T> parser) {
+        int count = items.size();
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Result<T>[] results = new Result[count];
+        int chunks = Math.min(parallelism, count / threshold + 1);
+        if (count < threshold || chunks < 2) {
+            parseRange(items, 0, count, parser, results);
+            return Arrays.asList(results);
+        }
+        int size = (count + chunks - 1) / chunks;
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(chunks);
+        int start = size;
+        int end;
+        // dispatch all chunks except the first one
+        for (; start < count; start += size) {
+            end = Math.min(start + size, count);
+            tasks.add(submit(items, start, end, parser, results));
+        }
+        // the caller takes the first chunk
+        parseRange(items, 0, size, parser, results);
+        for (CompletableFuture<Void> task : tasks) {
+            task.join();
+        }
+        return Arrays.asList(results);
+    }
+
+    private <T> CompletableFuture<Void> submit(List<?> items, int start, int end,
+                                               Function<Object, T> parser, Result<T>[] results) {
+        try {
+            return CompletableFuture.runAsync(() -> parseRange(items, start, end, parser, results), executor);
+        } catch (RejectedExecutionException e) {
+            // executor is busy or shut down, do it on current thread
+            parseRange(items, start, end, parser, results);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private static <T> void parseRange(List<?> items, int start, int end,
+                                       Function<Object, T> parser, Result<T>[] results) {
+        for (int index = start; index < end; ++index) {
+            try {
+                results[index] = new Result<>(index, parser.apply(items.get(index)), null);
+            } catch (RuntimeException e) {
+                results[index] = new Result<>(index, null, e);
+            }
+        }
+    }
+
+    /**
+     *  Parse result for one item
+     */
+    public static final class Result<T> {
+
+        public final int index;  // position in the input list
+
+        private final T value;
+        private final RuntimeException error;
+
+        Result(int index, T value, RuntimeException error) {
+            this.index = index;
+            this.value = value;
+            this.error = error;
+        }
+
+        /**
+         *  Get parsed object
+         *
+         * @return null on invalid item or error
+         */
+        public T getValue() {
+            return value;
+        }
+
+        /**
+         *  Get exception thrown while parsing this item
+         *
+         * @return null on success
+         */
+        public RuntimeException getError() {
+            return error;
+        }
+
+        public boolean isFailed() {
+            return error != null;
+        }
+    }
+
+}
@@ -0,0 +1,227 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.ext;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import chat.dim.protocol.Address;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.Meta;
+
+/**
+ *  ID Helper with interning cache
+ *  <p>
+ *      Wraps the ID helper from plugins, so that the same sender/receiver/group
+ *      strings in every envelope resolve to the same ID object.
+ *  </p>
+ *  <p>
+ *      The cache is bounded, entries are evicted by CLOCK (second chance),
+ *      which works like LRU; hits are lock-free, only misses take the lock.
+ *  </p>
+ *
+ *  <blockquote><pre>
+ *  Usage:
+ *      CachingIDHelper.install(4096);
+ *      ...
+ *      CachingIDHelper.uninstall();
+ *  </pre></blockquote>
+ */
+public class CachingIDHelper implements IDHelper {
+
+    private final IDHelper helper;
+
+    private final ConcurrentHashMap<String, Node> identifiers;
+
+    // CLOCK ring, guarded by itself
+    private final Node[] ring;
+    private int hand = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingIDHelper(IDHelper helper, int capacity) {
+        super();
+        assert capacity > 0 : "capacity error: " + capacity;
+        this.helper = helper;
+        this.identifiers = new ConcurrentHashMap<>(capacity * 4 / 3 + 1);
+        this.ring = new Node[capacity];
+    }
+
+    public IDHelper getHelper() {
+        return helper;
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    public int size() {
+        return identifiers.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public void clear() {
+        synchronized (ring) {
+            identifiers.clear();
+            for (int i = 0; i < ring.length; ++i) {
+                ring[i] = null;
+            }
+            hand = 0;
+        }
+    }
+
+    @Override
+    public ID parseID(Object identifier) {
+        if (identifier == null) {
+            return null;
+        } else if (identifier instanceof ID) {
+            return (ID) identifier;
+        }
+        String key = identifier.toString();
+        Node node = identifiers.get(key);
+        if (node != null) {
+            hits.increment();
+            if (!node.referenced) {
+                node.referenced = true;
+            }
+            return node.identifier;
+        }
+        misses.increment();
+        ID id = helper.parseID(identifier);
+        if (id == null) {
+            return null;
+        }
+        return intern(key, id);
+    }
+
+    private ID intern(String key, ID id) {
+        Node node = new Node(key, id);
+        synchronized (ring) {
+            Node exists = identifiers.putIfAbsent(key, node);
+            if (exists != null) {
+                // interned by another thread
+                return exists.identifier;
+            }
+            // find a slot which was not referenced recently
+            Node victim;
+            while ((victim = ring[hand]) != null && victim.referenced) {
+                victim.referenced = false;
+                hand = (hand + 1) % ring.length;
+            }
+            if (victim != null) {
+                identifiers.remove(victim.key, victim);
+                evictions.increment();
+            }
+            ring[hand] = node;
+            hand = (hand + 1) % ring.length;
+        }
+        return id;
+    }
+
+    @Override
+    public void setIDFactory(ID.Factory factory) {
+        helper.setIDFactory(factory);
+    }
+
+    @Override
+    public ID.Factory getIDFactory() {
+        return helper.getIDFactory();
+    }
+
+    @Override
+    public ID createID(String name, Address address, String terminal) {
+        return helper.createID(name, address, terminal);
+    }
+
+    @Override
+    public ID generateID(Meta meta, int network, String terminal) {
+        return helper.generateID(meta, network, terminal);
+    }
+
+    private static final class Node {
+
+        final String key;
+        final ID identifier;
+
+        volatile boolean referenced = false;
+
+        Node(String key, ID identifier) {
+            this.key = key;
+            this.identifier = identifier;
+        }
+    }
+
+    /**
+     *  Wrap the current ID helper with cache
+     *
+     * @param capacity - max cached IDs
+     * @return caching helper
+     */
+    public static synchronized CachingIDHelper install(int capacity) {
+        IDHelper current = SharedAccountExtensions.idHelper;
+        assert current != null : "ID helper not set yet";
+        if (current instanceof CachingIDHelper) {
+            current = ((CachingIDHelper) current).getHelper();
+        }
+        CachingIDHelper cache = new CachingIDHelper(current, capacity);
+        SharedAccountExtensions.idHelper = cache;
+        return cache;
+    }
+
+    /**
+     *  Restore the ID helper wrapped by the installed cache
+     *
+     * @return the helper restored, null when no cache installed
+     */
+    public static synchronized IDHelper uninstall() {
+        IDHelper current = SharedAccountExtensions.idHelper;
+        if (current instanceof CachingIDHelper) {
+            current = ((CachingIDHelper) current).getHelper();
+            SharedAccountExtensions.idHelper = current;
+            return current;
+        }
+        return null;
+    }
+
+}
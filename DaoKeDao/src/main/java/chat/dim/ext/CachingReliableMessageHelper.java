@@ -0,0 +1,335 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.ext;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import chat.dim.protocol.ReliableMessage;
+
+/**
+ *  Reliable Message Helper with parse cache
+ *  <p>
+ *      The same message often arrives several times through different
+ *      stations; this cache returns the instance parsed at the first time,
+ *      so the copies will not be parsed/verified again.
+ *  </p>
+ *  <p>
+ *      Messages are keyed by 'sender' + 'receiver' + 'signature', which are
+ *      plain strings in the map, so a duplicate can be recognized without
+ *      parsing it (copies of a group message for each member have the same
+ *      signature, the receiver tells them apart).
+ *      The cache runs before verifying, so the key is not trusted: on a hit,
+ *      'time', 'group', 'type', 'data', 'key' and 'keys' are
+ *      compared with the cached message too, a tampered copy (e.g. a real
+ *      signature with garbage data) is parsed on its own and never cached,
+ *      it can't take the place of the genuine message.
+ *      ('sn' is in the encrypted content, it cannot be used before decrypting)
+ *      Entries expire after 'ttl' milliseconds, and the cache is bounded,
+ *      evicted by CLOCK (second chance) as 'CachingIDHelper' does.
+ *  </p>
+ *  <p>
+ *      NOTICE: all copies of a message get the same ReliableMessage instance,
+ *      which may be handed to several consumers (and threads) at once;
+ *      treat it as read-only, call 'copyMap()' before changing anything.
+ *  </p>
+ *
+ *  <blockquote><pre>
+ *  Usage:
+ *      CachingReliableMessageHelper cache = CachingReliableMessageHelper.install(65536, 300 * 1000);
+ *      if (cache.isSeen(info)) {
+ *          // duplicated
+ *      }
+ *  </pre></blockquote>
+ */
+public class CachingReliableMessageHelper implements ReliableMessageHelper {
+
+    private final ReliableMessageHelper helper;
+    private final long ttl;
+
+    private final ConcurrentHashMap<String, Node> messages;
+
+    // CLOCK ring, guarded by itself
+    private final Node[] ring;
+    private int hand = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingReliableMessageHelper(ReliableMessageHelper helper, int capacity, long ttl) {
+        super();
+        assert capacity > 0 : "capacity error: " + capacity;
+        assert ttl > 0 : "ttl error: " + ttl;
+        this.helper = helper;
+        this.ttl = ttl;
+        this.messages = new ConcurrentHashMap<>(capacity * 4 / 3 + 1);
+        this.ring = new Node[capacity];
+    }
+
+    public ReliableMessageHelper getHelper() {
+        return helper;
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    public long getTimeToLive() {
+        return ttl;
+    }
+
+    public int size() {
+        return messages.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public void clear() {
+        synchronized (ring) {
+            messages.clear();
+            for (int i = 0; i < ring.length; ++i) {
+                ring[i] = null;
+            }
+            hand = 0;
+        }
+    }
+
+    /**
+     *  Check whether this message was parsed recently
+     *
+     * @param msg - message info
+     * @return true on duplicated
+     */
+    public boolean isSeen(Object msg) {
+        String key = getKey(msg);
+        if (key == null) {
+            return false;
+        }
+        Node node = get(key, System.currentTimeMillis());
+        return node != null && isSame((Map<?, ?>) msg, node.message);
+    }
+
+    @Override
+    public ReliableMessage parseReliableMessage(Object msg) {
+        if (msg == null) {
+            return null;
+        } else if (msg instanceof ReliableMessage) {
+            return (ReliableMessage) msg;
+        }
+        long now = System.currentTimeMillis();
+        String key = getKey(msg);
+        if (key != null) {
+            Node node = get(key, now);
+            if (node != null) {
+                if (isSame((Map<?, ?>) msg, node.message)) {
+                    hits.increment();
+                    return node.message;
+                }
+                // same key, different message: not trusted
+                misses.increment();
+                return helper.parseReliableMessage(msg);
+            }
+        }
+        misses.increment();
+        ReliableMessage rMsg = helper.parseReliableMessage(msg);
+        if (rMsg == null) {
+            return null;
+        } else if (key == null) {
+            // JSON string, get key from the parsed message
+            key = getKey(rMsg);
+            if (key == null) {
+                return rMsg;
+            }
+            Node node = get(key, now);
+            if (node != null) {
+                return isSame(rMsg, node.message) ? node.message : rMsg;
+            }
+        }
+        return put(key, rMsg, now);
+    }
+
+    private Node get(String key, long now) {
+        Node node = messages.get(key);
+        if (node == null) {
+            return null;
+        } else if (node.expires < now) {
+            // expired, the ring slot will be reused later
+            messages.remove(key, node);
+            return null;
+        }
+        if (!node.referenced) {
+            node.referenced = true;
+        }
+        return node;
+    }
+
+    private ReliableMessage put(String key, ReliableMessage msg, long now) {
+        Node node = new Node(key, msg, now + ttl);
+        synchronized (ring) {
+            Node exists = messages.get(key);
+            if (exists != null && exists.expires >= now) {
+                // cached by another thread
+                return isSame(msg, exists.message) ? exists.message : msg;
+            }
+            messages.put(key, node);
+            // find a slot which was not referenced recently
+            Node victim;
+            while ((victim = ring[hand]) != null && victim.referenced && victim.expires >= now) {
+                victim.referenced = false;
+                hand = (hand + 1) % ring.length;
+            }
+            if (victim != null && messages.remove(victim.key, victim)) {
+                evictions.increment();
+            }
+            ring[hand] = node;
+            hand = (hand + 1) % ring.length;
+        }
+        return msg;
+    }
+
+    // fields checked on hit, besides the ones in the key
+    private static final String[] KEY_FIELDS = {
+            "time", "group", "type", "data", "key", "keys",
+    };
+
+    /**
+     *  Get cache key: 'sender' + 'receiver' + 'signature'
+     *
+     * @param msg - message info
+     * @return null when not a map or 'sender'/'signature' not found
+     */
+    protected String getKey(Object msg) {
+        if (!(msg instanceof Map)) {
+            // JSON string
+            return null;
+        }
+        Map<?, ?> info = (Map<?, ?>) msg;
+        Object sender = info.get("sender");
+        Object signature = info.get("signature");
+        if (sender == null || signature == null) {
+            return null;
+        }
+        return sender + "\n" + info.get("receiver") + "\n" + signature;
+    }
+
+    /**
+     *  Check the fields not in the key
+     */
+    protected boolean isSame(Map<?, ?> info, ReliableMessage cached) {
+        for (String name : KEY_FIELDS) {
+            if (!isSame(info.get(name), cached.get(name))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSame(Object a, Object b) {
+        if (a == b) {
+            return true;
+        } else if (a == null || b == null) {
+            return false;
+        } else if (a instanceof Map && b instanceof Map) {
+            Map<?, ?> x = (Map<?, ?>) a;
+            Map<?, ?> y = (Map<?, ?>) b;
+            if (x.size() != y.size()) {
+                return false;
+            }
+            for (Map.Entry<?, ?> entry : x.entrySet()) {
+                if (!isSame(entry.getValue(), y.get(entry.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        } else if (a instanceof Number && b instanceof Number) {
+            return ((Number) a).doubleValue() == ((Number) b).doubleValue();
+        }
+        // strings, IDs, transportable data, ...
+        return a.toString().equals(b.toString());
+    }
+
+    @Override
+    public void setReliableMessageFactory(ReliableMessage.Factory factory) {
+        helper.setReliableMessageFactory(factory);
+    }
+
+    @Override
+    public ReliableMessage.Factory getReliableMessageFactory() {
+        return helper.getReliableMessageFactory();
+    }
+
+    private static final class Node {
+
+        final String key;
+        final ReliableMessage message;
+        final long expires;
+
+        volatile boolean referenced = false;
+
+        Node(String key, ReliableMessage message, long expires) {
+            this.key = key;
+            this.message = message;
+            this.expires = expires;
+        }
+    }
+
+    /**
+     *  Wrap the current reliable message helper with cache
+     *
+     * @param capacity - max cached messages
+     * @param ttl      - milliseconds to keep a message
+     * @return caching helper
+     */
+    public static synchronized CachingReliableMessageHelper install(int capacity, long ttl) {
+        MessageExtensions ext = SharedMessageExtensions.update(old -> {
+            ReliableMessageHelper current = old.getReliableHelper();
+            assert current != null : "reliable message helper not set yet";
+            if (current instanceof CachingReliableMessageHelper) {
+                current = ((CachingReliableMessageHelper) current).getHelper();
+            }
+            return old.withReliableHelper(new CachingReliableMessageHelper(current, capacity, ttl));
+        });
+        return (CachingReliableMessageHelper) ext.getReliableHelper();
+    }
+
+}
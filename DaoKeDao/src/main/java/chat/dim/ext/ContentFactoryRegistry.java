@@ -0,0 +1,93 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.ext;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import chat.dim.protocol.Content;
+
+/**
+ *  Content Factory Registry
+ *  <p>
+ *      Content types defined in 'ContentType' are numbers in range [0x00, 0xFF],
+ *      so their factories are kept in a dense array indexed by the type value;
+ *      custom types (not a number, or out of range) fall back to a concurrent map.
+ *  </p>
+ *  <p>
+ *      Both decimal ("136") and hexadecimal ("0x88") strings are accepted
+ *      for the same type, and reading never blocks, even while another
+ *      thread is setting factories.
+ *  </p>
+ */
+public class ContentFactoryRegistry {
+
+    public static final int MAX_INDEX = ContentTypeCodes.MAX_NUMERIC;
+
+    private final AtomicReferenceArray<Content.Factory> factories = new AtomicReferenceArray<>(MAX_INDEX + 1);
+    private final Map<String, Content.Factory> customFactories = new ConcurrentHashMap<>();
+
+    public void setContentFactory(String type, Content.Factory factory) {
+        int index = indexOf(type);
+        if (index >= 0) {
+            factories.set(index, factory);
+        } else if (type == null) {
+            assert false : "content type should not be empty";
+        } else if (factory == null) {
+            customFactories.remove(type);
+        } else {
+            customFactories.put(type, factory);
+        }
+    }
+
+    public Content.Factory getContentFactory(String type) {
+        int index = indexOf(type);
+        if (index >= 0) {
+            return factories.get(index);
+        } else if (type == null) {
+            // ConcurrentHashMap does not accept null key
+            return null;
+        }
+        return customFactories.get(type);
+    }
+
+    /**
+     *  Get array index for content type
+     *
+     * @param type - content type string, e.g.: "1", "136", "0x88"
+     * @return -1 on custom type
+     */
+    public static int indexOf(String type) {
+        return ContentTypeCodes.getNumericCode(type);
+    }
+
+}
@@ -30,6 +30,8 @@
  */
 package chat.dim.ext;
 
+import java.util.List;
+
 import chat.dim.protocol.Content;
 
 public interface ContentHelper {
@@ -39,4 +41,8 @@ public interface ContentHelper {
 
     Content parseContent(Object content);
 
+    default List<BatchParser.Result<Content>> parseContents(List<?> contents, BatchParser parser) {
+        return parser.parse(contents, this::parseContent);
+    }
+
 }
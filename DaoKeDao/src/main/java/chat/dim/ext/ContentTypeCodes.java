@@ -0,0 +1,163 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.ext;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ *  Content Type Codes
+ *  <p>
+ *      Maps content type strings to compact int codes, for dispatching by
+ *      'switch' or array index instead of comparing strings.
+ *  </p>
+ *  <p>
+ *      Types in 'ContentType' are numbers, their codes are the values
+ *      (0x00 ~ 0xFF), in decimal ("136") or hexadecimal ("0x88") forms.
+ *      Custom string types get codes from 0x100 after registered;
+ *      unregistered custom types are UNKNOWN, so strings from the network
+ *      cannot grow the table.
+ *  </p>
+ */
+public final class ContentTypeCodes {
+
+    public static final int UNKNOWN = -1;
+
+    public static final int MAX_NUMERIC = 0xFF;
+    public static final int MAX_CUSTOM = 0x1000;
+
+    private static final Map<String, Integer> customCodes = new ConcurrentHashMap<>();
+    private static final AtomicReferenceArray<String> customTypes = new AtomicReferenceArray<>(MAX_CUSTOM);
+    private static int customCount = 0;
+
+    private ContentTypeCodes() {
+    }
+
+    /**
+     *  Get code for content type
+     *
+     * @param type - content type string
+     * @return UNKNOWN for unregistered custom type
+     */
+    public static int valueOf(String type) {
+        int code = getNumericCode(type);
+        if (code >= 0 || type == null) {
+            return code;
+        }
+        Integer custom = customCodes.get(type);
+        return custom == null ? UNKNOWN : custom;
+    }
+
+    /**
+     *  Get content type string for code
+     *
+     * @param code - type code
+     * @return decimal string for numeric types, null for unknown code
+     */
+    public static String getType(int code) {
+        if (code < 0) {
+            return null;
+        } else if (code <= MAX_NUMERIC) {
+            return Integer.toString(code);
+        }
+        int index = code - MAX_NUMERIC - 1;
+        return index < MAX_CUSTOM ? customTypes.get(index) : null;
+    }
+
+    /**
+     *  Register a custom content type
+     *
+     * @param type - content type string
+     * @return code for this type
+     * @throws IllegalStateException when too many custom types
+     */
+    public static synchronized int register(String type) {
+        int code = valueOf(type);
+        if (code != UNKNOWN) {
+            return code;
+        } else if (type == null) {
+            throw new NullPointerException("content type empty");
+        } else if (customCount >= MAX_CUSTOM) {
+            throw new IllegalStateException("too many custom content types: " + type);
+        }
+        customTypes.set(customCount, type);
+        code = MAX_NUMERIC + 1 + customCount;
+        ++customCount;
+        customCodes.put(type, code);
+        return code;
+    }
+
+    /**
+     *  Parse numeric content type
+     *
+     * @param type - content type string, e.g.: "1", "136", "0x88"
+     * @return -1 on not numeric type
+     */
+    public static int getNumericCode(String type) {
+        if (type == null) {
+            return -1;
+        }
+        int len = type.length();
+        if (len > 2 && type.charAt(0) == '0' && (type.charAt(1) == 'x' || type.charAt(1) == 'X')) {
+            // hexadecimal: "0x0" ~ "0xFF"
+            return len > 4 ? -1 : parseHex(type, 2, len);
+        } else if (len == 0 || len > 3 || (len > 1 && type.charAt(0) == '0')) {
+            // empty, too long, or with leading zero
+            return -1;
+        }
+        // decimal: "0" ~ "255"
+        int value = 0;
+        char ch;
+        for (int i = 0; i < len; ++i) {
+            ch = type.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return -1;
+            }
+            value = value * 10 + (ch - '0');
+        }
+        return value > MAX_NUMERIC ? -1 : value;
+    }
+
+    private static int parseHex(String type, int start, int end) {
+        int value = 0;
+        int digit;
+        for (int i = start; i < end; ++i) {
+            digit = Character.digit(type.charAt(i), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+}
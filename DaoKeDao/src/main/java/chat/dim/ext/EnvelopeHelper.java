@@ -42,6 +42,12 @@ public interface EnvelopeHelper {
 
     Envelope createEnvelope(ID from, ID to, Date when);
 
+    default Envelope createEnvelope(ID from, ID to, long millis) {
+        Envelope.Factory factory = getEnvelopeFactory();
+        assert factory != null : "envelope factory not ready";
+        return factory.createEnvelope(from, to, millis);
+    }
+
     Envelope parseEnvelope(Object env);
 
 }
@@ -46,4 +46,16 @@ public interface GeneralMessageHelper/* extends Content.Helper, Envelope.Helper,
 
     String getContentType(Map<?, ?> content, String defaultValue);
 
+    /**
+     *  Get content type as code, for dispatching by switch or array index
+     *
+     * @param content      - content info
+     * @param defaultValue - default code
+     * @return code from 'ContentTypeCodes', or default value when type not found/registered
+     */
+    default int getContentTypeCode(Map<?, ?> content, int defaultValue) {
+        int code = ContentTypeCodes.valueOf(getContentType(content, null));
+        return code == ContentTypeCodes.UNKNOWN ? defaultValue : code;
+    }
+
 }
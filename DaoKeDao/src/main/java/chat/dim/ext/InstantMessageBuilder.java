@@ -0,0 +1,219 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.ext;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import chat.dim.format.JSONWriter;
+import chat.dim.protocol.ID;
+
+/**
+ *  Reusable Instant Message Builder
+ *  <p>
+ *      Writes envelope fields and content straight into JSON text,
+ *      without creating Date, Envelope or InstantMessage objects.
+ *      One builder per thread, the output is valid until next build.
+ *  </p>
+ *
+ *  <blockquote><pre>
+ *  InstantMessageBuilder builder = InstantMessageBuilder.getInstance();
+ *  builder.reset().setSender(from).setTime(now).setContent(content);
+ *  for (ID to : members) {
+ *      builder.setReceiver(to);
+ *      builder.encodeMessage(buffer);
+ *      ...
+ *  }
+ *  </pre></blockquote>
+ */
+public final class InstantMessageBuilder {
+
+    private static final ThreadLocal<InstantMessageBuilder> local = ThreadLocal.withInitial(InstantMessageBuilder::new);
+
+    /**
+     *  Get builder for current thread
+     */
+    public static InstantMessageBuilder getInstance() {
+        return local.get();
+    }
+
+    private CharSequence sender;
+    private CharSequence receiver;
+    private CharSequence group;
+    private CharSequence type;
+    private long time;
+
+    // serialized content, kept for fan-out
+    private final StringBuilder content = new StringBuilder(256);
+
+    private final StringBuilder output = new StringBuilder(512);
+
+    public InstantMessageBuilder() {
+        super();
+        reset();
+    }
+
+    public InstantMessageBuilder reset() {
+        sender = null;
+        receiver = null;
+        group = null;
+        type = null;
+        time = 0;
+        content.setLength(0);
+        return this;
+    }
+
+    public InstantMessageBuilder setSender(CharSequence sender) {
+        this.sender = sender;
+        return this;
+    }
+
+    public InstantMessageBuilder setReceiver(CharSequence receiver) {
+        this.receiver = receiver;
+        return this;
+    }
+
+    public InstantMessageBuilder setGroup(CharSequence group) {
+        this.group = group;
+        return this;
+    }
+
+    /**
+     *  Set envelope type, usually the same as content type
+     */
+    public InstantMessageBuilder setType(CharSequence type) {
+        this.type = type;
+        return this;
+    }
+
+    /**
+     *  Set message time
+     *
+     * @param millis - epoch milliseconds
+     */
+    public InstantMessageBuilder setTime(long millis) {
+        this.time = millis;
+        return this;
+    }
+
+    /**
+     *  Set content, serialized once for all receivers
+     *
+     * @param body - content info
+     */
+    public InstantMessageBuilder setContent(Map<?, ?> body) {
+        content.setLength(0);
+        JSONWriter.appendMap(body, content);
+        return this;
+    }
+
+    /**
+     *  Set content serialized already
+     *
+     * @param json - content JSON object
+     */
+    public InstantMessageBuilder setContent(CharSequence json) {
+        content.setLength(0);
+        content.append(json);
+        return this;
+    }
+
+    //
+    //  Output
+    //
+
+    /**
+     *  Build envelope JSON
+     *
+     * @return text valid until next build
+     */
+    public CharSequence buildEnvelope() {
+        output.setLength(0);
+        appendEnvelope(output);
+        output.append('}');
+        return output;
+    }
+
+    /**
+     *  Build instant message JSON
+     *
+     * @return text valid until next build
+     */
+    public CharSequence buildMessage() {
+        if (content.length() == 0) {
+            throw new IllegalStateException("message content not set");
+        }
+        output.setLength(0);
+        appendEnvelope(output);
+        output.append(",\"content\":").append(content);
+        output.append('}');
+        return output;
+    }
+
+    /**
+     *  Build envelope and encode to buffer as UTF-8
+     *
+     * @return encoded length
+     */
+    public int encodeEnvelope(ByteBuffer buffer) {
+        return JSONWriter.encode(buildEnvelope(), buffer);
+    }
+
+    /**
+     *  Build instant message and encode to buffer as UTF-8
+     *
+     * @return encoded length
+     */
+    public int encodeMessage(ByteBuffer buffer) {
+        return JSONWriter.encode(buildMessage(), buffer);
+    }
+
+    private void appendEnvelope(StringBuilder sb) {
+        if (sender == null) {
+            throw new IllegalStateException("message sender not set");
+        }
+        sb.append("{\"sender\":");
+        JSONWriter.appendString(sender, sb);
+        sb.append(",\"receiver\":");
+        JSONWriter.appendString(receiver == null ? ID.ANYONE : receiver, sb);
+        sb.append(",\"time\":");
+        JSONWriter.appendSeconds(time > 0 ? time : System.currentTimeMillis(), sb);
+        if (group != null) {
+            sb.append(",\"group\":");
+            JSONWriter.appendString(group, sb);
+        }
+        if (type != null) {
+            sb.append(",\"type\":");
+            JSONWriter.appendString(type, sb);
+        }
+    }
+
+}
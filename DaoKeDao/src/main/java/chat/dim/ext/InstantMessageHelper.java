@@ -31,6 +31,7 @@
 package chat.dim.ext;
 
 import java.util.Date;
+import java.util.List;
 
 import chat.dim.protocol.Content;
 import chat.dim.protocol.Envelope;
@@ -45,6 +46,10 @@ public interface InstantMessageHelper {
 
     InstantMessage parseInstantMessage(Object msg);
 
+    default List<BatchParser.Result<InstantMessage>> parseInstantMessages(List<?> messages, BatchParser parser) {
+        return parser.parse(messages, this::parseInstantMessage);
+    }
+
     long generateSerialNumber(String msgType, Date now);
 
 }
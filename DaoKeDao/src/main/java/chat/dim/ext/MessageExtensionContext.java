@@ -0,0 +1,142 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.ext;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+import chat.dim.protocol.Content;
+import chat.dim.protocol.Envelope;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.InstantMessage;
+import chat.dim.protocol.ReliableMessage;
+import chat.dim.protocol.SecureMessage;
+
+/**
+ *  Message Extension Context
+ *  <p>
+ *      An isolated set of message helpers, so one process could serve
+ *      several protocol versions or tenants, each with its own factories.
+ *  </p>
+ *  <p>
+ *      The static methods ('Content.parse', 'ReliableMessage.parse', ...)
+ *      always use the default context in 'SharedMessageExtensions'.
+ *      To use another context, call its factory methods; the messages
+ *      created by it keep the context, so their lazy parts (e.g.: content
+ *      of an instant message) are parsed by it on any thread.
+ *  </p>
+ *
+ *  <blockquote><pre>
+ *  Usage:
+ *      MessageExtensionContext tenant = new MessageExtensionContext();
+ *      MessageGeneralFactory.install(tenant);
+ *      ReliableMessage msg = tenant.parseReliableMessage(info);
+ *      ...
+ *  </pre></blockquote>
+ */
+public class MessageExtensionContext {
+
+    private final AtomicReference<MessageExtensions> extensions;
+
+    public MessageExtensionContext(MessageExtensions ext) {
+        super();
+        extensions = new AtomicReference<>(ext == null ? MessageExtensions.EMPTY : ext);
+    }
+
+    public MessageExtensionContext() {
+        this(MessageExtensions.EMPTY);
+    }
+
+    public MessageExtensions get() {
+        return extensions.get();
+    }
+
+    public void set(MessageExtensions ext) {
+        extensions.set(ext == null ? MessageExtensions.EMPTY : ext);
+    }
+
+    /**
+     *  Change current snapshot atomically
+     *
+     * @param updater - returns the new snapshot from the current one, may be called more than once
+     * @return new snapshot
+     */
+    public MessageExtensions update(UnaryOperator<MessageExtensions> updater) {
+        MessageExtensions current, next;
+        do {
+            current = extensions.get();
+            next = updater.apply(current);
+        } while (!extensions.compareAndSet(current, next));
+        return next;
+    }
+
+    //
+    //  Factory methods
+    //
+
+    public Content parseContent(Object content) {
+        return get().getContentHelper().parseContent(content);
+    }
+
+    public Envelope createEnvelope(ID from, ID to, Date when) {
+        return get().getEnvelopeHelper().createEnvelope(from, to, when);
+    }
+
+    public Envelope createEnvelope(ID from, ID to, long millis) {
+        return get().getEnvelopeHelper().createEnvelope(from, to, millis);
+    }
+
+    public Envelope parseEnvelope(Object env) {
+        return get().getEnvelopeHelper().parseEnvelope(env);
+    }
+
+    public InstantMessage createInstantMessage(Envelope head, Content body) {
+        return get().getInstantHelper().createInstantMessage(head, body);
+    }
+
+    public InstantMessage parseInstantMessage(Object msg) {
+        return get().getInstantHelper().parseInstantMessage(msg);
+    }
+
+    public long generateSerialNumber(String msgType, Date now) {
+        return get().getInstantHelper().generateSerialNumber(msgType, now);
+    }
+
+    public SecureMessage parseSecureMessage(Object msg) {
+        return get().getSecureHelper().parseSecureMessage(msg);
+    }
+
+    public ReliableMessage parseReliableMessage(Object msg) {
+        return get().getReliableHelper().parseReliableMessage(msg);
+    }
+
+}
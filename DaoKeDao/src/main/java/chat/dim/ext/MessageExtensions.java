@@ -0,0 +1,140 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.ext;
+
+/**
+ *  Message Extensions
+ *  <p>
+ *      A frozen set of message helpers, all fields are final,
+ *      so a snapshot can be shared by any threads after published;
+ *      use 'with*' to get a modified copy.
+ *  </p>
+ */
+public final class MessageExtensions {
+
+    public static final MessageExtensions EMPTY = new MessageExtensions(null, null, null, null, null, null, null);
+
+    private final ContentHelper contentHelper;
+
+    private final EnvelopeHelper envelopeHelper;
+
+    private final InstantMessageHelper instantHelper;
+    private final SecureMessageHelper secureHelper;
+    private final ReliableMessageHelper reliableHelper;
+
+    // general helper
+    private final GeneralMessageHelper helper;
+
+    // instrumentation, see 'MessageInstrumentation'
+    private final MessageMonitor monitor;
+
+    public MessageExtensions(ContentHelper contentHelper, EnvelopeHelper envelopeHelper,
+                             InstantMessageHelper instantHelper, SecureMessageHelper secureHelper,
+                             ReliableMessageHelper reliableHelper,
+                             GeneralMessageHelper helper, MessageMonitor monitor) {
+        super();
+        this.contentHelper = contentHelper;
+        this.envelopeHelper = envelopeHelper;
+        this.instantHelper = instantHelper;
+        this.secureHelper = secureHelper;
+        this.reliableHelper = reliableHelper;
+        this.helper = helper;
+        this.monitor = monitor;
+    }
+
+    public ContentHelper getContentHelper() {
+        return contentHelper;
+    }
+
+    public EnvelopeHelper getEnvelopeHelper() {
+        return envelopeHelper;
+    }
+
+    public InstantMessageHelper getInstantHelper() {
+        return instantHelper;
+    }
+
+    public SecureMessageHelper getSecureHelper() {
+        return secureHelper;
+    }
+
+    public ReliableMessageHelper getReliableHelper() {
+        return reliableHelper;
+    }
+
+    public GeneralMessageHelper getHelper() {
+        return helper;
+    }
+
+    public MessageMonitor getMonitor() {
+        return monitor;
+    }
+
+    //
+    //  Copy with one field changed
+    //
+
+    public MessageExtensions withContentHelper(ContentHelper contentHelper) {
+        return new MessageExtensions(contentHelper, envelopeHelper,
+                instantHelper, secureHelper, reliableHelper, helper, monitor);
+    }
+
+    public MessageExtensions withEnvelopeHelper(EnvelopeHelper envelopeHelper) {
+        return new MessageExtensions(contentHelper, envelopeHelper,
+                instantHelper, secureHelper, reliableHelper, helper, monitor);
+    }
+
+    public MessageExtensions withInstantHelper(InstantMessageHelper instantHelper) {
+        return new MessageExtensions(contentHelper, envelopeHelper,
+                instantHelper, secureHelper, reliableHelper, helper, monitor);
+    }
+
+    public MessageExtensions withSecureHelper(SecureMessageHelper secureHelper) {
+        return new MessageExtensions(contentHelper, envelopeHelper,
+                instantHelper, secureHelper, reliableHelper, helper, monitor);
+    }
+
+    public MessageExtensions withReliableHelper(ReliableMessageHelper reliableHelper) {
+        return new MessageExtensions(contentHelper, envelopeHelper,
+                instantHelper, secureHelper, reliableHelper, helper, monitor);
+    }
+
+    public MessageExtensions withHelper(GeneralMessageHelper helper) {
+        return new MessageExtensions(contentHelper, envelopeHelper,
+                instantHelper, secureHelper, reliableHelper, helper, monitor);
+    }
+
+    public MessageExtensions withMonitor(MessageMonitor monitor) {
+        return new MessageExtensions(contentHelper, envelopeHelper,
+                instantHelper, secureHelper, reliableHelper, helper, monitor);
+    }
+
+}
@@ -0,0 +1,307 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.ext;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.function.Function;
+
+import chat.dim.protocol.Content;
+import chat.dim.protocol.Envelope;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.InstantMessage;
+import chat.dim.protocol.ReliableMessage;
+import chat.dim.protocol.SecureMessage;
+
+/**
+ *  Message Instrumentation
+ *  <p>
+ *      Decorates the helpers in 'SharedMessageExtensions' to report parsing
+ *      events to the monitor in 'SharedMessageExtensions'.
+ *      When the monitor is null, a decorated helper costs only one snapshot read.
+ *  </p>
+ *
+ *  <blockquote><pre>
+ *  Usage:
+ *      MessageStatistics stat = new MessageStatistics();
+ *      SharedMessageExtensions.setMonitor(stat);
+ *      MessageInstrumentation.install();
+ *  </pre></blockquote>
+ */
+public final class MessageInstrumentation {
+
+    private MessageInstrumentation() {
+    }
+
+    /**
+     *  Wrap all message helpers (call after plugins loaded)
+     */
+    public static synchronized void install() {
+        SharedMessageExtensions.update(MessageInstrumentation::wrap);
+    }
+
+    /**
+     *  Restore the original helpers
+     */
+    public static synchronized void uninstall() {
+        SharedMessageExtensions.update(MessageInstrumentation::unwrap);
+    }
+
+    static MessageExtensions wrap(MessageExtensions ext) {
+        ContentHelper contentHelper = ext.getContentHelper();
+        if (contentHelper != null && !(contentHelper instanceof InstrumentedContentHelper)) {
+            ext = ext.withContentHelper(new InstrumentedContentHelper(contentHelper));
+        }
+        EnvelopeHelper envelopeHelper = ext.getEnvelopeHelper();
+        if (envelopeHelper != null && !(envelopeHelper instanceof InstrumentedEnvelopeHelper)) {
+            ext = ext.withEnvelopeHelper(new InstrumentedEnvelopeHelper(envelopeHelper));
+        }
+        InstantMessageHelper instantHelper = ext.getInstantHelper();
+        if (instantHelper != null && !(instantHelper instanceof InstrumentedInstantMessageHelper)) {
+            ext = ext.withInstantHelper(new InstrumentedInstantMessageHelper(instantHelper));
+        }
+        SecureMessageHelper secureHelper = ext.getSecureHelper();
+        if (secureHelper != null && !(secureHelper instanceof InstrumentedSecureMessageHelper)) {
+            ext = ext.withSecureHelper(new InstrumentedSecureMessageHelper(secureHelper));
+        }
+        ReliableMessageHelper reliableHelper = ext.getReliableHelper();
+        if (reliableHelper != null && !(reliableHelper instanceof InstrumentedReliableMessageHelper)) {
+            ext = ext.withReliableHelper(new InstrumentedReliableMessageHelper(reliableHelper));
+        }
+        return ext;
+    }
+
+    static MessageExtensions unwrap(MessageExtensions ext) {
+        if (ext.getContentHelper() instanceof InstrumentedContentHelper) {
+            ext = ext.withContentHelper(((InstrumentedContentHelper) ext.getContentHelper()).helper);
+        }
+        if (ext.getEnvelopeHelper() instanceof InstrumentedEnvelopeHelper) {
+            ext = ext.withEnvelopeHelper(((InstrumentedEnvelopeHelper) ext.getEnvelopeHelper()).helper);
+        }
+        if (ext.getInstantHelper() instanceof InstrumentedInstantMessageHelper) {
+            ext = ext.withInstantHelper(((InstrumentedInstantMessageHelper) ext.getInstantHelper()).helper);
+        }
+        if (ext.getSecureHelper() instanceof InstrumentedSecureMessageHelper) {
+            ext = ext.withSecureHelper(((InstrumentedSecureMessageHelper) ext.getSecureHelper()).helper);
+        }
+        if (ext.getReliableHelper() instanceof InstrumentedReliableMessageHelper) {
+            ext = ext.withReliableHelper(((InstrumentedReliableMessageHelper) ext.getReliableHelper()).helper);
+        }
+        return ext;
+    }
+
+    static <T> T parse(MessageMonitor.Kind kind, Object info, Function<Object, T> parser) {
+        MessageMonitor monitor = SharedMessageExtensions.getMonitor();
+        if (monitor == null || info == null) {
+            return parser.apply(info);
+        }
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = parser.apply(info);
+        } catch (RuntimeException e) {
+            monitor.onFailed(kind, getContentType(kind, info), System.nanoTime() - start, e);
+            throw e;
+        }
+        long nanos = System.nanoTime() - start;
+        if (result == null) {
+            monitor.onFailed(kind, getContentType(kind, info), nanos, null);
+        } else if (result instanceof Content) {
+            monitor.onParsed(kind, ((Content) result).getType(), nanos);
+        } else {
+            monitor.onParsed(kind, null, nanos);
+        }
+        return result;
+    }
+
+    private static String getContentType(MessageMonitor.Kind kind, Object info) {
+        GeneralMessageHelper helper = SharedMessageExtensions.getHelper();
+        if (kind != MessageMonitor.Kind.CONTENT || helper == null || !(info instanceof Map)) {
+            return null;
+        }
+        return helper.getContentType((Map<?, ?>) info, null);
+    }
+
+    //
+    //  Decorators
+    //
+
+    static final class InstrumentedContentHelper implements ContentHelper {
+
+        final ContentHelper helper;
+        private final Function<Object, Content> parser;
+
+        InstrumentedContentHelper(ContentHelper helper) {
+            this.helper = helper;
+            this.parser = helper::parseContent;
+        }
+
+        @Override
+        public void setContentFactory(String type, Content.Factory factory) {
+            helper.setContentFactory(type, factory);
+        }
+
+        @Override
+        public Content.Factory getContentFactory(String type) {
+            return helper.getContentFactory(type);
+        }
+
+        @Override
+        public Content parseContent(Object content) {
+            return parse(MessageMonitor.Kind.CONTENT, content, parser);
+        }
+    }
+
+    static final class InstrumentedEnvelopeHelper implements EnvelopeHelper {
+
+        final EnvelopeHelper helper;
+        private final Function<Object, Envelope> parser;
+
+        InstrumentedEnvelopeHelper(EnvelopeHelper helper) {
+            this.helper = helper;
+            this.parser = helper::parseEnvelope;
+        }
+
+        @Override
+        public void setEnvelopeFactory(Envelope.Factory factory) {
+            helper.setEnvelopeFactory(factory);
+        }
+
+        @Override
+        public Envelope.Factory getEnvelopeFactory() {
+            return helper.getEnvelopeFactory();
+        }
+
+        @Override
+        public Envelope createEnvelope(ID from, ID to, Date when) {
+            return helper.createEnvelope(from, to, when);
+        }
+
+        @Override
+        public Envelope createEnvelope(ID from, ID to, long millis) {
+            return helper.createEnvelope(from, to, millis);
+        }
+
+        @Override
+        public Envelope parseEnvelope(Object env) {
+            return parse(MessageMonitor.Kind.ENVELOPE, env, parser);
+        }
+    }
+
+    static final class InstrumentedInstantMessageHelper implements InstantMessageHelper {
+
+        final InstantMessageHelper helper;
+        private final Function<Object, InstantMessage> parser;
+
+        InstrumentedInstantMessageHelper(InstantMessageHelper helper) {
+            this.helper = helper;
+            this.parser = helper::parseInstantMessage;
+        }
+
+        @Override
+        public void setInstantMessageFactory(InstantMessage.Factory factory) {
+            helper.setInstantMessageFactory(factory);
+        }
+
+        @Override
+        public InstantMessage.Factory getInstantMessageFactory() {
+            return helper.getInstantMessageFactory();
+        }
+
+        @Override
+        public InstantMessage createInstantMessage(Envelope head, Content body) {
+            return helper.createInstantMessage(head, body);
+        }
+
+        @Override
+        public InstantMessage parseInstantMessage(Object msg) {
+            return parse(MessageMonitor.Kind.INSTANT_MESSAGE, msg, parser);
+        }
+
+        @Override
+        public long generateSerialNumber(String msgType, Date now) {
+            return helper.generateSerialNumber(msgType, now);
+        }
+    }
+
+    static final class InstrumentedSecureMessageHelper implements SecureMessageHelper {
+
+        final SecureMessageHelper helper;
+        private final Function<Object, SecureMessage> parser;
+
+        InstrumentedSecureMessageHelper(SecureMessageHelper helper) {
+            this.helper = helper;
+            this.parser = helper::parseSecureMessage;
+        }
+
+        @Override
+        public void setSecureMessageFactory(SecureMessage.Factory factory) {
+            helper.setSecureMessageFactory(factory);
+        }
+
+        @Override
+        public SecureMessage.Factory getSecureMessageFactory() {
+            return helper.getSecureMessageFactory();
+        }
+
+        @Override
+        public SecureMessage parseSecureMessage(Object msg) {
+            return parse(MessageMonitor.Kind.SECURE_MESSAGE, msg, parser);
+        }
+    }
+
+    static final class InstrumentedReliableMessageHelper implements ReliableMessageHelper {
+
+        final ReliableMessageHelper helper;
+        private final Function<Object, ReliableMessage> parser;
+
+        InstrumentedReliableMessageHelper(ReliableMessageHelper helper) {
+            this.helper = helper;
+            this.parser = helper::parseReliableMessage;
+        }
+
+        @Override
+        public void setReliableMessageFactory(ReliableMessage.Factory factory) {
+            helper.setReliableMessageFactory(factory);
+        }
+
+        @Override
+        public ReliableMessage.Factory getReliableMessageFactory() {
+            return helper.getReliableMessageFactory();
+        }
+
+        @Override
+        public ReliableMessage parseReliableMessage(Object msg) {
+            return parse(MessageMonitor.Kind.RELIABLE_MESSAGE, msg, parser);
+        }
+    }
+
+}
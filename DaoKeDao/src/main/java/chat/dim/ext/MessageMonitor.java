@@ -0,0 +1,69 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.ext;
+
+/**
+ *  Message Monitor
+ *  <p>
+ *      Receives events from the instrumented helpers,
+ *      see 'MessageInstrumentation'.
+ *  </p>
+ */
+public interface MessageMonitor {
+
+    enum Kind {
+        CONTENT,
+        ENVELOPE,
+        INSTANT_MESSAGE,
+        SECURE_MESSAGE,
+        RELIABLE_MESSAGE,
+    }
+
+    /**
+     *  Called after an object parsed
+     *
+     * @param kind  - object kind
+     * @param type  - content type (only for content)
+     * @param nanos - time cost
+     */
+    void onParsed(Kind kind, String type, long nanos);
+
+    /**
+     *  Called when failed to parse an object
+     *
+     * @param kind  - object kind
+     * @param type  - content type (only for content)
+     * @param nanos - time cost
+     * @param error - exception thrown by the helper, null when it returned null
+     */
+    void onFailed(Kind kind, String type, long nanos, Throwable error);
+
+}
@@ -0,0 +1,242 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.ext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *  Message Statistics
+ *  <p>
+ *      Counts parsed/failed objects for each kind and each content type,
+ *      with latency histograms in power-of-two nanosecond buckets.
+ *  </p>
+ *  <p>
+ *      Content types are counted by 'ContentTypeCodes', custom types which
+ *      are not registered there are counted together as OTHER_TYPES,
+ *      so type strings from the network cannot grow the table.
+ *  </p>
+ */
+public class MessageStatistics implements MessageMonitor {
+
+    // bucket i counts latency in [2^(i-1), 2^i) nanoseconds
+    public static final int BUCKETS = 64;
+
+    // key for unregistered content types
+    public static final String OTHER_TYPES = "other";
+
+    private final Counter[] counters;
+    // type => [parsed, failed]
+    private final Map<String, LongAdder[]> contentTypes = new ConcurrentHashMap<>();
+
+    public MessageStatistics() {
+        super();
+        Kind[] kinds = Kind.values();
+        counters = new Counter[kinds.length];
+        for (int i = 0; i < kinds.length; ++i) {
+            counters[i] = new Counter();
+        }
+    }
+
+    @Override
+    public void onParsed(Kind kind, String type, long nanos) {
+        Counter counter = counters[kind.ordinal()];
+        counter.parsed.increment();
+        counter.record(nanos);
+        if (type != null) {
+            getTypeCounters(type)[0].increment();
+        }
+    }
+
+    @Override
+    public void onFailed(Kind kind, String type, long nanos, Throwable error) {
+        Counter counter = counters[kind.ordinal()];
+        if (error == null) {
+            counter.nulls.increment();
+        } else {
+            counter.errors.increment();
+        }
+        counter.record(nanos);
+        if (type != null) {
+            getTypeCounters(type)[1].increment();
+        }
+    }
+
+    private LongAdder[] getTypeCounters(String type) {
+        int code = ContentTypeCodes.valueOf(type);
+        String key = code == ContentTypeCodes.UNKNOWN ? OTHER_TYPES : ContentTypeCodes.getType(code);
+        // 'computeIfAbsent' locks the bin even when the key exists (Java 8)
+        LongAdder[] counters = contentTypes.get(key);
+        if (counters == null) {
+            counters = contentTypes.computeIfAbsent(key, k -> new LongAdder[]{new LongAdder(), new LongAdder()});
+        }
+        return counters;
+    }
+
+    public long getParsedCount(Kind kind) {
+        return counters[kind.ordinal()].parsed.sum();
+    }
+
+    /**
+     *  Count of objects which the helper returned null
+     */
+    public long getNullCount(Kind kind) {
+        return counters[kind.ordinal()].nulls.sum();
+    }
+
+    /**
+     *  Count of objects which the helper threw exceptions
+     */
+    public long getErrorCount(Kind kind) {
+        return counters[kind.ordinal()].errors.sum();
+    }
+
+    /**
+     *  Get parsed count for each content type
+     *
+     * @return type =&gt; count, numeric types in decimal form
+     */
+    public Map<String, Long> getContentTypeCounts() {
+        return getTypeCounts(0);
+    }
+
+    /**
+     *  Get failed count (nulls &amp; errors) for each content type
+     *
+     * @return type =&gt; count, numeric types in decimal form
+     */
+    public Map<String, Long> getContentTypeFailures() {
+        return getTypeCounts(1);
+    }
+
+    private Map<String, Long> getTypeCounts(int index) {
+        Map<String, Long> counts = new HashMap<>();
+        long count;
+        for (Map.Entry<String, LongAdder[]> entry : contentTypes.entrySet()) {
+            count = entry.getValue()[index].sum();
+            if (count > 0) {
+                counts.put(entry.getKey(), count);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     *  Get latency histogram
+     *
+     * @param kind - object kind
+     * @return counts in buckets, bucket i for [2^(i-1), 2^i) nanoseconds
+     */
+    public long[] getHistogram(Kind kind) {
+        AtomicLongArray buckets = counters[kind.ordinal()].buckets;
+        long[] histogram = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; ++i) {
+            histogram[i] = buckets.get(i);
+        }
+        return histogram;
+    }
+
+    /**
+     *  Estimate latency at percentile from histogram
+     *
+     * @param kind       - object kind
+     * @param percentile - 0.0 ~ 1.0
+     * @return upper bound of the bucket in nanoseconds
+     */
+    public long getLatency(Kind kind, double percentile) {
+        long[] histogram = getHistogram(kind);
+        long total = 0;
+        for (long count : histogram) {
+            total += count;
+        }
+        long target = (long) Math.ceil(total * percentile);
+        long sum = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            sum += histogram[i];
+            if (sum >= target && sum > 0) {
+                return i == 0 ? 0 : (1L << i) - 1;
+            }
+        }
+        return 0;
+    }
+
+    public void reset() {
+        for (Counter counter : counters) {
+            counter.reset();
+        }
+        contentTypes.clear();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append('<').append(getClass().getSimpleName()).append(">\n");
+        for (Kind kind : Kind.values()) {
+            sb.append("    <").append(kind)
+                    .append(" parsed=").append(getParsedCount(kind))
+                    .append(" nulls=").append(getNullCount(kind))
+                    .append(" errors=").append(getErrorCount(kind))
+                    .append(" p50=").append(getLatency(kind, 0.5)).append("ns")
+                    .append(" p99=").append(getLatency(kind, 0.99)).append("ns")
+                    .append(" />\n");
+        }
+        sb.append("    <types>").append(getContentTypeCounts()).append("</types>\n");
+        sb.append("    <failures>").append(getContentTypeFailures()).append("</failures>\n");
+        sb.append("</").append(getClass().getSimpleName()).append('>');
+        return sb.toString();
+    }
+
+    private static final class Counter {
+
+        final LongAdder parsed = new LongAdder();
+        final LongAdder nulls = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        void record(long nanos) {
+            int index = nanos <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(nanos);
+            buckets.incrementAndGet(Math.min(index, BUCKETS - 1));
+        }
+
+        void reset() {
+            parsed.reset();
+            nulls.reset();
+            errors.reset();
+            for (int i = 0; i < BUCKETS; ++i) {
+                buckets.set(i, 0);
+            }
+        }
+    }
+
+}
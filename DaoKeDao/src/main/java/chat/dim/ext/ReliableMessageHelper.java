@@ -30,6 +30,8 @@
  */
 package chat.dim.ext;
 
+import java.util.List;
+
 import chat.dim.protocol.ReliableMessage;
 
 public interface ReliableMessageHelper {
@@ -39,4 +41,8 @@ public interface ReliableMessageHelper {
 
     ReliableMessage parseReliableMessage(Object msg);
 
+    default List<BatchParser.Result<ReliableMessage>> parseReliableMessages(List<?> messages, BatchParser parser) {
+        return parser.parse(messages, this::parseReliableMessage);
+    }
+
 }
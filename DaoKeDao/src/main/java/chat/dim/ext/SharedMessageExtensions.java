@@ -30,20 +30,181 @@
  */
 package chat.dim.ext;
 
+import java.util.function.UnaryOperator;
+
 /**
  *  Message FactoryManager
+ *  <p>
+ *      Helpers are kept in a frozen snapshot ('MessageExtensions'),
+ *      parsing needs only one read of the current snapshot, no locking;
+ *      changing a helper publishes a new snapshot by atomic swap.
+ *  </p>
+ *  <p>
+ *      All methods work on the default context,
+ *      see 'MessageExtensionContext' for other contexts.
+ *  </p>
+ *  <p>
+ *      The public static fields are kept for old code only: they mirror
+ *      the snapshot of the default context after each change; a value
+ *      assigned to them directly is taken into the snapshot by the next
+ *      setter or 'update()' call, reading never checks them.
+ *  </p>
  */
 public final class SharedMessageExtensions {
 
+    /**
+     *  Legacy fields, use the accessors instead
+     */
+    @Deprecated
     public static ContentHelper contentHelper = null;
 
+    @Deprecated
     public static EnvelopeHelper envelopeHelper = null;
 
+    @Deprecated
     public static InstantMessageHelper instantHelper = null;
+    @Deprecated
     public static SecureMessageHelper secureHelper = null;
+    @Deprecated
     public static ReliableMessageHelper reliableHelper = null;
 
     // general helper
+    @Deprecated
     public static GeneralMessageHelper helper = null;
 
+    // instrumentation, see 'MessageInstrumentation'
+    @Deprecated
+    public static MessageMonitor monitor = null;
+
+    private static final MessageExtensionContext defaultContext = new DefaultContext();
+
+    private SharedMessageExtensions() {
+    }
+
+    public static MessageExtensionContext getDefaultContext() {
+        return defaultContext;
+    }
+
+    public static MessageExtensions get() {
+        return defaultContext.get();
+    }
+
+    public static void set(MessageExtensions ext) {
+        defaultContext.set(ext);
+    }
+
+    /**
+     *  Change current snapshot atomically
+     *
+     * @param updater - returns the new snapshot from the current one, may be called more than once
+     * @return new snapshot
+     */
+    public static MessageExtensions update(UnaryOperator<MessageExtensions> updater) {
+        return defaultContext.update(updater);
+    }
+
+    //
+    //  Accessors
+    //
+
+    public static ContentHelper getContentHelper() {
+        return get().getContentHelper();
+    }
+    public static void setContentHelper(ContentHelper helper) {
+        update(ext -> ext.withContentHelper(helper));
+    }
+
+    public static EnvelopeHelper getEnvelopeHelper() {
+        return get().getEnvelopeHelper();
+    }
+    public static void setEnvelopeHelper(EnvelopeHelper helper) {
+        update(ext -> ext.withEnvelopeHelper(helper));
+    }
+
+    public static InstantMessageHelper getInstantHelper() {
+        return get().getInstantHelper();
+    }
+    public static void setInstantHelper(InstantMessageHelper helper) {
+        update(ext -> ext.withInstantHelper(helper));
+    }
+
+    public static SecureMessageHelper getSecureHelper() {
+        return get().getSecureHelper();
+    }
+    public static void setSecureHelper(SecureMessageHelper helper) {
+        update(ext -> ext.withSecureHelper(helper));
+    }
+
+    public static ReliableMessageHelper getReliableHelper() {
+        return get().getReliableHelper();
+    }
+    public static void setReliableHelper(ReliableMessageHelper helper) {
+        update(ext -> ext.withReliableHelper(helper));
+    }
+
+    // general helper
+    public static GeneralMessageHelper getHelper() {
+        return get().getHelper();
+    }
+    public static void setHelper(GeneralMessageHelper helper) {
+        update(ext -> ext.withHelper(helper));
+    }
+
+    // instrumentation, see 'MessageInstrumentation'
+    public static MessageMonitor getMonitor() {
+        return get().getMonitor();
+    }
+    public static void setMonitor(MessageMonitor monitor) {
+        update(ext -> ext.withMonitor(monitor));
+    }
+
+    /**
+     *  Default context, keeps the legacy fields in step with its snapshot
+     */
+    @SuppressWarnings("deprecation")
+    private static final class DefaultContext extends MessageExtensionContext {
+
+        // 'get()' is inherited: a plain read of the snapshot
+
+        @Override
+        public synchronized void set(MessageExtensions ext) {
+            super.set(ext);
+            publish(super.get());
+        }
+
+        @Override
+        public synchronized MessageExtensions update(UnaryOperator<MessageExtensions> updater) {
+            if (!isMirrored(super.get())) {
+                // fields are published with the snapshot under this lock,
+                // so a difference seen here was assigned by legacy code
+                super.set(new MessageExtensions(contentHelper, envelopeHelper,
+                        instantHelper, secureHelper, reliableHelper,
+                        helper, monitor));
+            }
+            MessageExtensions ext = super.update(updater);
+            publish(ext);
+            return ext;
+        }
+
+        private static boolean isMirrored(MessageExtensions ext) {
+            return ext.getContentHelper() == contentHelper
+                    && ext.getEnvelopeHelper() == envelopeHelper
+                    && ext.getInstantHelper() == instantHelper
+                    && ext.getSecureHelper() == secureHelper
+                    && ext.getReliableHelper() == reliableHelper
+                    && ext.getHelper() == helper
+                    && ext.getMonitor() == monitor;
+        }
+
+        private static void publish(MessageExtensions ext) {
+            contentHelper = ext.getContentHelper();
+            envelopeHelper = ext.getEnvelopeHelper();
+            instantHelper = ext.getInstantHelper();
+            secureHelper = ext.getSecureHelper();
+            reliableHelper = ext.getReliableHelper();
+            helper = ext.getHelper();
+            monitor = ext.getMonitor();
+        }
+    }
+
 }
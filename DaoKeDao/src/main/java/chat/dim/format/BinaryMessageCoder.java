@@ -0,0 +1,485 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import chat.dim.protocol.Content;
+import chat.dim.protocol.Envelope;
+import chat.dim.protocol.InstantMessage;
+import chat.dim.protocol.ReliableMessage;
+import chat.dim.protocol.SecureMessage;
+import chat.dim.type.Mapper;
+
+/**
+ *  Binary Message Coder
+ *  <p>
+ *      Compact binary form for messages, an alternative to JSON.
+ *      Fields are written as tagged values with varint lengths,
+ *      well-known keys take one byte, and base64 strings in
+ *      'data', 'key', 'signature' and 'keys' are stored as raw bytes.
+ *  </p>
+ *
+ *  <blockquote><pre>
+ *  value format:
+ *      NULL   : 0x00
+ *      FALSE  : 0x01
+ *      TRUE   : 0x02
+ *      INT    : 0x03, zigzag varint
+ *      FLOAT  : 0x04, 8 bytes (double)
+ *      STRING : 0x05, varint length, UTF-8 bytes
+ *      BINARY : 0x06, varint length, raw bytes (base64 string in map form)
+ *      LIST   : 0x07, varint count, values
+ *      MAP    : 0x08, varint count, (key, value) pairs
+ *  key format:
+ *      varint index of well-known keys (1 ~ n),
+ *      or 0, varint length, UTF-8 bytes
+ *  </pre></blockquote>
+ *
+ *  <p>
+ *      Decoding gives back the same map form as before encoding,
+ *      except that integers become Long and floats become Double,
+ *      and binary fields become 'BinaryTransportableData', whose string
+ *      form is the original base64 text, so no base64 string is built
+ *      until the message is written as JSON.
+ *  </p>
+ *  <p>
+ *      The models of this module are backed by maps ('Dictionary'),
+ *      so the decoded map is not an intermediate copy: it is handed to
+ *      'parse()' and becomes the message's own storage.
+ *      Raw bytes are copied out of the buffer (the buffer may be reused
+ *      or unmapped, e.g. in 'MessageLog'), but never re-encoded.
+ *  </p>
+ */
+public final class BinaryMessageCoder {
+
+    static final int NULL = 0x00;
+    static final int FALSE = 0x01;
+    static final int TRUE = 0x02;
+    static final int INT = 0x03;
+    static final int FLOAT = 0x04;
+    static final int STRING = 0x05;
+    static final int BINARY = 0x06;
+    static final int LIST = 0x07;
+    static final int MAP = 0x08;
+
+    // max nesting level of lists/maps
+    static final int MAX_DEPTH = 64;
+
+    // Do not reorder! Append new keys at the end only.
+    private static final String[] KEYS = {
+            "sender", "receiver", "time", "group", "type",
+            "data", "key", "keys", "signature", "digest",
+            "content", "sn", "text", "command",
+            "meta", "visa", "document", "algorithm",
+    };
+    private static final Map<String, Integer> KEY_INDEXES = new HashMap<>();
+    static {
+        for (int i = 0; i < KEYS.length; ++i) {
+            KEY_INDEXES.put(KEYS[i], i + 1);
+        }
+    }
+
+    private BinaryMessageCoder() {
+    }
+
+    //
+    //  Encoding
+    //
+
+    /**
+     *  Write message into the buffer
+     *
+     * @param msg    - message info
+     * @param buffer - output buffer
+     * @throws BufferOverflowException when no enough space in buffer,
+     *                                  the buffer position is not changed
+     */
+    public static void encode(Map<?, ?> msg, ByteBuffer buffer) {
+        int start = buffer.position();
+        try {
+            writeMap(msg, buffer);
+        } catch (RuntimeException e) {
+            // drop the partial record
+            buffer.position(start);
+            throw e;
+        }
+    }
+
+    public static void encode(Mapper msg, ByteBuffer buffer) {
+        encode(msg.toMap(), buffer);
+    }
+
+    public static byte[] encode(Mapper msg) {
+        return encode(msg.toMap());
+    }
+
+    public static byte[] encode(Map<?, ?> msg) {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        while (true) {
+            try {
+                writeMap(msg, buffer);
+                break;
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() << 1);
+            }
+        }
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip();
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static void writeMap(Map<?, ?> map, ByteBuffer buffer) {
+        buffer.put((byte) MAP);
+        writeVarint(map.size(), buffer);
+        String key;
+        Object value;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            key = entry.getKey().toString();
+            value = entry.getValue();
+            writeKey(key, buffer);
+            if ("keys".equals(key) && value instanceof Map) {
+                writeKeys((Map<?, ?>) value, buffer);
+            } else if (value instanceof CharSequence && isBinaryKey(key)) {
+                writeEncoded((CharSequence) value, buffer);
+            } else {
+                writeValue(value, buffer);
+            }
+        }
+    }
+
+    private static void writeKeys(Map<?, ?> keys, ByteBuffer buffer) {
+        buffer.put((byte) MAP);
+        writeVarint(keys.size(), buffer);
+        Object value;
+        for (Map.Entry<?, ?> entry : keys.entrySet()) {
+            writeKey(entry.getKey().toString(), buffer);
+            value = entry.getValue();
+            if (value instanceof CharSequence) {
+                writeEncoded((CharSequence) value, buffer);
+            } else {
+                writeValue(value, buffer);
+            }
+        }
+    }
+
+    private static boolean isBinaryKey(String key) {
+        switch (key) {
+            case "data":
+            case "key":
+            case "signature":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static void writeKey(String key, ByteBuffer buffer) {
+        Integer index = KEY_INDEXES.get(key);
+        if (index != null) {
+            writeVarint(index, buffer);
+        } else {
+            buffer.put((byte) 0);
+            writeBytes(key.getBytes(StandardCharsets.UTF_8), buffer);
+        }
+    }
+
+    private static void writeEncoded(CharSequence value, ByteBuffer buffer) {
+        if (value instanceof BinaryTransportableData) {
+            // decoded from binary form, take the bytes as they are
+            buffer.put((byte) BINARY);
+            writeBytes(((BinaryTransportableData) value).getBytes(), buffer);
+            return;
+        }
+        String text = value.toString();
+        if (isCanonicalBase64(text)) {
+            buffer.put((byte) BINARY);
+            writeBytes(Base64.getDecoder().decode(text), buffer);
+        } else {
+            buffer.put((byte) STRING);
+            writeBytes(text.getBytes(StandardCharsets.UTF_8), buffer);
+        }
+    }
+
+    private static void writeValue(Object value, ByteBuffer buffer) {
+        if (value == null) {
+            buffer.put((byte) NULL);
+        } else if (value instanceof Boolean) {
+            buffer.put((byte) ((Boolean) value ? TRUE : FALSE));
+        } else if (value instanceof Long || value instanceof Integer
+                || value instanceof Short || value instanceof Byte) {
+            buffer.put((byte) INT);
+            long number = ((Number) value).longValue();
+            writeVarint((number << 1) ^ (number >> 63), buffer);
+        } else if (value instanceof Number) {
+            buffer.put((byte) FLOAT);
+            buffer.putDouble(((Number) value).doubleValue());
+        } else if (value instanceof CharSequence) {
+            // String, ID, ...
+            buffer.put((byte) STRING);
+            writeBytes(value.toString().getBytes(StandardCharsets.UTF_8), buffer);
+        } else if (value instanceof byte[]) {
+            buffer.put((byte) BINARY);
+            writeBytes((byte[]) value, buffer);
+        } else if (value instanceof Map) {
+            writeMap((Map<?, ?>) value, buffer);
+        } else if (value instanceof Collection) {
+            Collection<?> array = (Collection<?>) value;
+            buffer.put((byte) LIST);
+            writeVarint(array.size(), buffer);
+            for (Object item : array) {
+                writeValue(item, buffer);
+            }
+        } else {
+            throw new IllegalArgumentException("unsupported value: " + value.getClass());
+        }
+    }
+
+    private static void writeBytes(byte[] bytes, ByteBuffer buffer) {
+        writeVarint(bytes.length, buffer);
+        buffer.put(bytes);
+    }
+
+    private static void writeVarint(long value, ByteBuffer buffer) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    // only the strings which could be restored exactly will be stored as bytes
+    private static boolean isCanonicalBase64(String text) {
+        int len = text.length();
+        if (len == 0 || (len & 3) != 0) {
+            return false;
+        }
+        int pad = 0;
+        if (text.charAt(len - 1) == '=') {
+            pad = text.charAt(len - 2) == '=' ? 2 : 1;
+        }
+        int last = 0;
+        for (int i = len - pad - 1; i >= 0; --i) {
+            last = indexOfBase64(text.charAt(i));
+            if (last < 0) {
+                return false;
+            } else if (i == len - pad - 1) {
+                // unused bits in the last char must be zero
+                if ((pad == 2 && (last & 0x0F) != 0) || (pad == 1 && (last & 0x03) != 0)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int indexOfBase64(char ch) {
+        if (ch >= 'A' && ch <= 'Z') {
+            return ch - 'A';
+        } else if (ch >= 'a' && ch <= 'z') {
+            return ch - 'a' + 26;
+        } else if (ch >= '0' && ch <= '9') {
+            return ch - '0' + 52;
+        } else if (ch == '+') {
+            return 62;
+        } else if (ch == '/') {
+            return 63;
+        }
+        return -1;
+    }
+
+    //
+    //  Decoding
+    //
+
+    /**
+     *  Read message from the buffer
+     *
+     * @param buffer - input buffer, from position
+     * @return message info
+     * @throws IllegalArgumentException on format error
+     */
+    public static Map<String, Object> decode(ByteBuffer buffer) {
+        try {
+            if (buffer.get() != MAP) {
+                throw new IllegalArgumentException("not a message");
+            }
+            return readMap(buffer, 1);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("message data incomplete", e);
+        }
+    }
+
+    public static Map<String, Object> decode(byte[] data) {
+        return decode(ByteBuffer.wrap(data));
+    }
+
+    private static Map<String, Object> readMap(ByteBuffer buffer, int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("nesting too deep: " + depth);
+        }
+        // each pair takes 2 bytes at least
+        int count = readLength(buffer, 2);
+        Map<String, Object> map = new HashMap<>(count * 4 / 3 + 1);
+        for (int i = 0; i < count; ++i) {
+            map.put(readKey(buffer), readValue(buffer, depth));
+        }
+        return map;
+    }
+
+    private static String readKey(ByteBuffer buffer) {
+        long index = readVarint(buffer);
+        if (index == 0) {
+            return readString(buffer);
+        } else if (index < 0 || index > KEYS.length) {
+            throw new IllegalArgumentException("unknown key index: " + index);
+        }
+        return KEYS[(int) index - 1];
+    }
+
+    private static Object readValue(ByteBuffer buffer, int depth) {
+        int tag = buffer.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case FALSE:
+                return Boolean.FALSE;
+            case TRUE:
+                return Boolean.TRUE;
+            case INT:
+                long zigzag = readVarint(buffer);
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            case FLOAT:
+                return buffer.getDouble();
+            case STRING:
+                return readString(buffer);
+            case BINARY:
+                byte[] bytes = new byte[readLength(buffer, 1)];
+                buffer.get(bytes);
+                return new BinaryTransportableData(bytes);
+            case LIST:
+                if (depth >= MAX_DEPTH) {
+                    throw new IllegalArgumentException("nesting too deep: " + depth);
+                }
+                // each item takes 1 byte at least
+                int count = readLength(buffer, 1);
+                List<Object> array = new ArrayList<>(count);
+                for (int i = 0; i < count; ++i) {
+                    array.add(readValue(buffer, depth + 1));
+                }
+                return array;
+            case MAP:
+                return readMap(buffer, depth + 1);
+            default:
+                throw new IllegalArgumentException("unknown tag: " + tag);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int len = readLength(buffer, 1);
+        String text;
+        if (buffer.hasArray()) {
+            text = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), len, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + len);
+        } else {
+            byte[] bytes = new byte[len];
+            buffer.get(bytes);
+            text = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return text;
+    }
+
+    /**
+     *  Read length/count, and check it with the remaining bytes
+     *  before anything is allocated
+     *
+     * @param buffer   - input buffer
+     * @param unitSize - min bytes taken by each unit
+     * @return length or count
+     */
+    private static int readLength(ByteBuffer buffer, int unitSize) {
+        long len = readVarint(buffer);
+        if (len < 0 || len > buffer.remaining() / unitSize) {
+            throw new IllegalArgumentException("length error: " + len);
+        }
+        return (int) len;
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 63) {
+                throw new IllegalArgumentException("varint too long");
+            }
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    //
+    //  Messages
+    //
+
+    public static Envelope decodeEnvelope(ByteBuffer buffer) {
+        return Envelope.parse(decode(buffer));
+    }
+
+    public static Content decodeContent(ByteBuffer buffer) {
+        return Content.parse(decode(buffer));
+    }
+
+    public static InstantMessage decodeInstantMessage(ByteBuffer buffer) {
+        return InstantMessage.parse(decode(buffer));
+    }
+
+    public static SecureMessage decodeSecureMessage(ByteBuffer buffer) {
+        return SecureMessage.parse(decode(buffer));
+    }
+
+    public static ReliableMessage decodeReliableMessage(ByteBuffer buffer) {
+        return ReliableMessage.parse(decode(buffer));
+    }
+
+}
@@ -0,0 +1,157 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.util.Arrays;
+import java.util.Base64;
+
+import chat.dim.protocol.TransportableData;
+import chat.dim.type.Stringer;
+
+/**
+ *  Transportable Data, backed by raw bytes
+ *  <p>
+ *      Binary fields read by 'BinaryMessageCoder' come back as this,
+ *      the base64 string is only built when the text form is needed
+ *      (e.g.: writing the message as JSON), and writing the message
+ *      back to binary form takes the bytes as they are.
+ *  </p>
+ */
+public final class BinaryTransportableData implements TransportableData {
+
+    public static final String ENCODING = "base64";
+
+    private final byte[] bytes;
+    private volatile String encoded = null;
+
+    public BinaryTransportableData(byte[] bytes) {
+        super();
+        this.bytes = bytes;
+    }
+
+    @Override
+    public String getEncoding() {
+        return ENCODING;
+    }
+
+    /**
+     *  Get raw bytes, not copied, don't modify it
+     */
+    @Override
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        String text = encoded;
+        if (text == null) {
+            text = encoded = Base64.getEncoder().encodeToString(bytes);
+        }
+        return text;
+    }
+
+    /**
+     *  Base64 string, same as the map form before encoding
+     */
+    @Override
+    public Object serialize() {
+        return toString();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        } else if (other instanceof BinaryTransportableData) {
+            return Arrays.equals(bytes, ((BinaryTransportableData) other).bytes);
+        } else if (other instanceof CharSequence) {
+            return toString().equals(other.toString());
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return toString().hashCode();
+    }
+
+    //
+    //  CharSequence
+    //
+
+    @Override
+    public int length() {
+        // 4 chars for each 3 bytes, with padding
+        return (bytes.length + 2) / 3 * 4;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return bytes.length == 0;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public int compareTo(String other) {
+        return toString().compareTo(other);
+    }
+
+    @Override
+    public int compareToIgnoreCase(String other) {
+        return toString().compareToIgnoreCase(other);
+    }
+
+    @Override
+    public int compareToIgnoreCase(Stringer other) {
+        return toString().compareToIgnoreCase(other.toString());
+    }
+
+    @Override
+    public boolean equalsIgnoreCase(String other) {
+        return toString().equalsIgnoreCase(other);
+    }
+
+    @Override
+    public boolean equalsIgnoreCase(Stringer other) {
+        return other != null && toString().equalsIgnoreCase(other.toString());
+    }
+
+}
@@ -0,0 +1,426 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *  JSON Scanner
+ *  <p>
+ *      Reads JSON values directly from UTF-8 bytes in a buffer,
+ *      it can also skip a value without building it,
+ *      so the caller could pick only the fields it needs.
+ *  </p>
+ *  <p>
+ *      The position/limit of the source buffer will not be changed.
+ *  </p>
+ *  <p>
+ *      Nesting of objects/arrays is limited by 'maxDepth', deeper input
+ *      throws IllegalArgumentException like other format errors, instead of
+ *      overflowing the stack.
+ *  </p>
+ *  <p>
+ *      Input is checked strictly: members/elements must be separated by
+ *      commas, and 'endDocument()' rejects anything after the value.
+ *  </p>
+ */
+public class JSONScanner {
+
+    public static final int DEFAULT_MAX_DEPTH = 64;
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    private final int maxDepth;
+    private int position;
+    private int depth = 0;
+    // no member/element read yet in the current object/array
+    private boolean first = false;
+
+    public JSONScanner(ByteBuffer buffer, int start, int end, int maxDepth) {
+        super();
+        this.buffer = buffer;
+        this.position = start;
+        this.limit = end;
+        this.maxDepth = maxDepth;
+    }
+
+    public JSONScanner(ByteBuffer buffer, int start, int end) {
+        this(buffer, start, end, DEFAULT_MAX_DEPTH);
+    }
+
+    public JSONScanner(ByteBuffer buffer) {
+        this(buffer, buffer.position(), buffer.limit());
+    }
+
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     *  Skip whitespaces and peek next byte
+     *
+     * @return -1 on end
+     */
+    public int peek() {
+        byte ch;
+        while (position < limit) {
+            ch = buffer.get(position);
+            if (ch == ' ' || ch == '\t' || ch == '\n' || ch == '\r') {
+                ++position;
+            } else {
+                return ch & 0xFF;
+            }
+        }
+        return -1;
+    }
+
+    private void expect(char ch) {
+        if (peek() != ch) {
+            throw error("'" + ch + "' expected");
+        }
+        ++position;
+    }
+
+    private void enter() {
+        if (++depth > maxDepth) {
+            throw error("nesting too deep");
+        }
+    }
+
+    /**
+     *  Check that nothing but whitespace is left after the value
+     *
+     * @throws IllegalArgumentException on trailing data
+     */
+    public void endDocument() {
+        if (peek() >= 0) {
+            throw error("end of input expected");
+        }
+    }
+
+    protected IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("JSON error at " + position + ": " + message);
+    }
+
+    //
+    //  Object members
+    //
+
+    public void beginObject() {
+        expect('{');
+        first = true;
+    }
+
+    /**
+     *  Read name of next member in current object
+     *
+     * @return null when reach the end of object
+     */
+    public String nextName() {
+        int ch = peek();
+        if (ch == '}') {
+            ++position;
+            first = false;
+            return null;
+        } else if (first) {
+            first = false;
+        } else if (ch == ',') {
+            ++position;
+            ch = peek();
+        } else {
+            throw error("',' or '}' expected");
+        }
+        if (ch != '"') {
+            throw error("member name expected");
+        }
+        String name = readString();
+        expect(':');
+        return name;
+    }
+
+    //
+    //  Values
+    //
+
+    public Object readValue() {
+        int ch = peek();
+        switch (ch) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                readLiteral("true");
+                return Boolean.TRUE;
+            case 'f':
+                readLiteral("false");
+                return Boolean.FALSE;
+            case 'n':
+                readLiteral("null");
+                return null;
+            default:
+                return readNumber();
+        }
+    }
+
+    public void skipValue() {
+        int ch = peek();
+        switch (ch) {
+            case '{':
+                enter();
+                beginObject();
+                while (nextName() != null) {
+                    skipValue();
+                }
+                --depth;
+                break;
+            case '[':
+                enter();
+                beginArray();
+                while (nextElement()) {
+                    skipValue();
+                }
+                --depth;
+                break;
+            case '"':
+                skipString();
+                break;
+            default:
+                // number or literal
+                readValue();
+                break;
+        }
+    }
+
+    public Map<String, Object> readObject() {
+        Map<String, Object> map = new HashMap<>();
+        enter();
+        beginObject();
+        String name;
+        while ((name = nextName()) != null) {
+            map.put(name, readValue());
+        }
+        --depth;
+        return map;
+    }
+
+    public List<Object> readArray() {
+        List<Object> list = new ArrayList<>();
+        enter();
+        beginArray();
+        while (nextElement()) {
+            list.add(readValue());
+        }
+        --depth;
+        return list;
+    }
+
+    private void beginArray() {
+        expect('[');
+        first = true;
+    }
+
+    private boolean nextElement() {
+        int ch = peek();
+        if (ch == ']') {
+            ++position;
+            first = false;
+            return false;
+        } else if (first) {
+            first = false;
+        } else if (ch == ',') {
+            ++position;
+        } else {
+            throw error("',' or ']' expected");
+        }
+        return true;
+    }
+
+    private void readLiteral(String literal) {
+        int len = literal.length();
+        if (position + len > limit) {
+            throw error(literal + " expected");
+        }
+        for (int i = 0; i < len; ++i) {
+            if (buffer.get(position + i) != literal.charAt(i)) {
+                throw error(literal + " expected");
+            }
+        }
+        position += len;
+    }
+
+    private Number readNumber() {
+        int start = position;
+        boolean integral = true;
+        byte ch;
+        for (; position < limit; ++position) {
+            ch = buffer.get(position);
+            if (ch >= '0' && ch <= '9' || ch == '-' || ch == '+') {
+                continue;
+            } else if (ch == '.' || ch == 'e' || ch == 'E') {
+                integral = false;
+                continue;
+            }
+            break;
+        }
+        if (start == position) {
+            throw error("value expected");
+        }
+        String text = decode(start, position);
+        if (integral) {
+            try {
+                return Long.parseLong(text);
+            } catch (NumberFormatException e) {
+                // out of range, parse as double
+            }
+        }
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw error("number error: " + text);
+        }
+    }
+
+    private void skipString() {
+        expect('"');
+        byte ch;
+        while (position < limit) {
+            ch = buffer.get(position++);
+            if (ch == '"') {
+                return;
+            } else if (ch == '\\') {
+                ++position;
+            }
+        }
+        throw error("unterminated string");
+    }
+
+    public String readString() {
+        expect('"');
+        StringBuilder sb = null;
+        int start = position;
+        byte ch;
+        while (position < limit) {
+            ch = buffer.get(position);
+            if (ch == '"') {
+                String tail = decode(start, position++);
+                if (sb == null) {
+                    return tail;
+                }
+                return sb.append(tail).toString();
+            } else if (ch != '\\') {
+                ++position;
+                continue;
+            }
+            // escaped char
+            if (sb == null) {
+                sb = new StringBuilder();
+            }
+            sb.append(decode(start, position));
+            if (position + 1 >= limit) {
+                break;
+            }
+            ch = buffer.get(position + 1);
+            position += 2;
+            switch (ch) {
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > limit) {
+                        throw error("unicode escape error");
+                    }
+                    sb.append(readHex4());
+                    break;
+                default:
+                    // '"', '\\', '/'
+                    sb.append((char) ch);
+                    break;
+            }
+            start = position;
+        }
+        throw error("unterminated string");
+    }
+
+    private char readHex4() {
+        int code = 0;
+        int digit;
+        for (int end = position + 4; position < end; ++position) {
+            // 'Integer.parseInt()' would accept a sign
+            digit = Character.digit(buffer.get(position), 16);
+            if (digit < 0) {
+                throw error("unicode escape error");
+            }
+            code = (code << 4) | digit;
+        }
+        return (char) code;
+    }
+
+    private String decode(int start, int end) {
+        int len = end - start;
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, len, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[len];
+        for (int i = 0; i < len; ++i) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,210 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ *  JSON Writer
+ *  <p>
+ *      Appends JSON text to a reusable StringBuilder,
+ *      and encodes it into a ByteBuffer as UTF-8,
+ *      without creating intermediate strings or byte arrays.
+ *  </p>
+ */
+public final class JSONWriter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private JSONWriter() {
+    }
+
+    public static void appendValue(Object value, StringBuilder sb) {
+        if (value == null) {
+            sb.append("null");
+        } else if (value instanceof Boolean) {
+            sb.append(((Boolean) value).booleanValue());
+        } else if (value instanceof Long || value instanceof Integer
+                || value instanceof Short || value instanceof Byte) {
+            sb.append(((Number) value).longValue());
+        } else if (value instanceof Number) {
+            double number = ((Number) value).doubleValue();
+            if (Double.isNaN(number) || Double.isInfinite(number)) {
+                throw new IllegalArgumentException("number error: " + value);
+            }
+            sb.append(number);
+        } else if (value instanceof CharSequence) {
+            // String, ID, ...
+            appendString((CharSequence) value, sb);
+        } else if (value instanceof Map) {
+            appendMap((Map<?, ?>) value, sb);
+        } else if (value instanceof Collection) {
+            sb.append('[');
+            boolean first = true;
+            for (Object item : (Collection<?>) value) {
+                if (first) {
+                    first = false;
+                } else {
+                    sb.append(',');
+                }
+                appendValue(item, sb);
+            }
+            sb.append(']');
+        } else {
+            throw new IllegalArgumentException("unsupported value: " + value.getClass());
+        }
+    }
+
+    public static void appendMap(Map<?, ?> map, StringBuilder sb) {
+        sb.append('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (first) {
+                first = false;
+            } else {
+                sb.append(',');
+            }
+            appendString(entry.getKey().toString(), sb);
+            sb.append(':');
+            appendValue(entry.getValue(), sb);
+        }
+        sb.append('}');
+    }
+
+    public static void appendString(CharSequence text, StringBuilder sb) {
+        sb.append('"');
+        int len = text.length();
+        char ch;
+        for (int i = 0; i < len; ++i) {
+            ch = text.charAt(i);
+            switch (ch) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (ch < 0x20) {
+                        sb.append("\\u00").append(HEX[ch >> 4]).append(HEX[ch & 0xF]);
+                    } else {
+                        sb.append(ch);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     *  Append timestamp in seconds, with milliseconds as fraction
+     *
+     * @param millis - epoch milliseconds
+     * @param sb     - output
+     */
+    public static void appendSeconds(long millis, StringBuilder sb) {
+        if (millis < 0) {
+            sb.append('-');
+            millis = -millis;
+        }
+        sb.append(millis / 1000);
+        int fraction = (int) (millis % 1000);
+        if (fraction != 0) {
+            sb.append('.');
+            sb.append((char) ('0' + fraction / 100));
+            fraction %= 100;
+            if (fraction != 0) {
+                sb.append((char) ('0' + fraction / 10));
+                fraction %= 10;
+                if (fraction != 0) {
+                    sb.append((char) ('0' + fraction));
+                }
+            }
+        }
+    }
+
+    /**
+     *  Encode text into buffer as UTF-8
+     *
+     * @param text   - JSON text
+     * @param buffer - output
+     * @return encoded length
+     * @throws BufferOverflowException when buffer not enough, position unchanged
+     */
+    public static int encode(CharSequence text, ByteBuffer buffer) {
+        int start = buffer.position();
+        try {
+            int len = text.length();
+            char ch;
+            int cp;
+            for (int i = 0; i < len; ++i) {
+                ch = text.charAt(i);
+                if (ch < 0x80) {
+                    buffer.put((byte) ch);
+                } else if (ch < 0x800) {
+                    buffer.put((byte) (0xC0 | (ch >> 6)));
+                    buffer.put((byte) (0x80 | (ch & 0x3F)));
+                } else if (Character.isHighSurrogate(ch) && i + 1 < len
+                        && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    cp = Character.toCodePoint(ch, text.charAt(++i));
+                    buffer.put((byte) (0xF0 | (cp >> 18)));
+                    buffer.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                    buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                    buffer.put((byte) (0x80 | (cp & 0x3F)));
+                } else if (Character.isSurrogate(ch)) {
+                    // unpaired surrogate
+                    buffer.put((byte) '?');
+                } else {
+                    buffer.put((byte) (0xE0 | (ch >> 12)));
+                    buffer.put((byte) (0x80 | ((ch >> 6) & 0x3F)));
+                    buffer.put((byte) (0x80 | (ch & 0x3F)));
+                }
+            }
+        } catch (BufferOverflowException e) {
+            // drop the partial text
+            buffer.position(start);
+            throw e;
+        }
+        return buffer.position() - start;
+    }
+
+}
@@ -0,0 +1,308 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Map;
+
+import chat.dim.protocol.ReliableMessage;
+
+/**
+ *  Streaming decoder for reliable messages
+ *  <p>
+ *      Collects chunks from a connection into one bounded buffer,
+ *      and parses each frame from the bytes as soon as it is complete,
+ *      without building the JSON string first.
+ *  </p>
+ *
+ *  <blockquote><pre>
+ *  framing:
+ *      LINE   : JSON text ends with '\n' (empty lines are ignored)
+ *      LENGTH : 4 bytes length (big-endian), JSON text
+ *  </pre></blockquote>
+ *
+ *  <p>
+ *      It is pull-based: the caller reads more data only after taking
+ *      the messages out by 'next()', when the buffer is full, 'read()'
+ *      reads nothing and 'feed()' leaves the rest in the source buffer,
+ *      so a slow consumer holds back the connection instead of buffering.
+ *  </p>
+ *  <p>
+ *      Frames larger than 'maxFrameSize' and frames that cannot be parsed
+ *      are dropped, see 'getDroppedFrames()'.
+ *      In LENGTH framing, an invalid (negative) length header means the frame
+ *      boundary is lost: the stream is flagged as corrupted, all data in it
+ *      is dropped from then on, and the caller should close the connection
+ *      (or 'reset()' the decoder after resynchronizing it).
+ *  </p>
+ *
+ *  <blockquote><pre>
+ *  while (decoder.read(channel) >= 0) {
+ *      ReliableMessage msg;
+ *      while ((msg = decoder.next()) != null) {
+ *          process(msg);
+ *      }
+ *  }
+ *  </pre></blockquote>
+ */
+public class ReliableMessageDecoder {
+
+    public enum Framing {
+        LINE,
+        LENGTH,
+    }
+
+    private static final int HEADER_SIZE = 4;
+
+    private final Framing framing;
+    private final int maxFrameSize;
+
+    // write mode, data in [head, position)
+    private final ByteBuffer buffer;
+    private int head = 0;
+    // LINE: next index to look for '\n'
+    private int scan = 0;
+    // LINE: dropping an oversize line until '\n'
+    private boolean discarding = false;
+    // LENGTH: bytes left of an oversize frame
+    private int skipping = 0;
+    // LENGTH: frame boundary lost
+    private boolean corrupted = false;
+
+    // current frame
+    private int frameStart;
+    private int frameEnd;
+
+    private long droppedFrames = 0;
+
+    public ReliableMessageDecoder(Framing framing, int maxFrameSize) {
+        super();
+        if (maxFrameSize <= 0) {
+            throw new IllegalArgumentException("max frame size error: " + maxFrameSize);
+        }
+        this.framing = framing;
+        this.maxFrameSize = maxFrameSize;
+        int capacity = framing == Framing.LENGTH ? maxFrameSize + HEADER_SIZE : maxFrameSize + 1;
+        this.buffer = ByteBuffer.allocate(capacity);
+    }
+
+    public Framing getFraming() {
+        return framing;
+    }
+
+    public int getMaxFrameSize() {
+        return maxFrameSize;
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    /**
+     *  Check whether the frame boundary is lost
+     *
+     * @return true on invalid length header
+     */
+    public boolean isCorrupted() {
+        return corrupted;
+    }
+
+    /**
+     *  Drop all buffered data and start from a new frame
+     */
+    public void reset() {
+        buffer.clear();
+        head = 0;
+        scan = 0;
+        discarding = false;
+        skipping = 0;
+        corrupted = false;
+    }
+
+    /**
+     *  Get length of data waiting in the buffer
+     */
+    public int available() {
+        return buffer.position() - head;
+    }
+
+    /**
+     *  Read data from channel into the free space of buffer
+     *
+     * @param channel - connection
+     * @return bytes read, 0 when buffer is full, -1 on end of stream
+     */
+    public int read(ReadableByteChannel channel) throws IOException {
+        compact();
+        if (!buffer.hasRemaining()) {
+            return 0;
+        }
+        return channel.read(buffer);
+    }
+
+    /**
+     *  Copy data from source into the free space of buffer
+     *
+     * @param src - data chunk, the rest is left for next time when buffer is full
+     * @return bytes copied
+     */
+    public int feed(ByteBuffer src) {
+        compact();
+        int count = Math.min(src.remaining(), buffer.remaining());
+        if (count == src.remaining()) {
+            buffer.put(src);
+        } else if (count > 0) {
+            ByteBuffer chunk = src.duplicate();
+            chunk.limit(chunk.position() + count);
+            buffer.put(chunk);
+            src.position(src.position() + count);
+        }
+        return count;
+    }
+
+    /**
+     *  Parse next complete message in the buffer
+     *
+     * @return null when more data needed
+     */
+    public ReliableMessage next() {
+        JSONScanner scanner;
+        Map<String, Object> info;
+        ReliableMessage msg;
+        while (nextFrame()) {
+            scanner = new JSONScanner(buffer, frameStart, frameEnd);
+            if (scanner.peek() < 0) {
+                // empty line, keep alive
+                continue;
+            }
+            try {
+                info = scanner.readObject();
+                scanner.endDocument();
+                msg = ReliableMessage.parse(info);
+            } catch (RuntimeException e) {
+                // format error
+                msg = null;
+            }
+            if (msg != null) {
+                return msg;
+            }
+            ++droppedFrames;
+        }
+        return null;
+    }
+
+    private boolean nextFrame() {
+        if (framing == Framing.LENGTH) {
+            return nextLengthFrame();
+        } else {
+            return nextLineFrame();
+        }
+    }
+
+    private boolean nextLineFrame() {
+        int tail = buffer.position();
+        while (scan < tail) {
+            if (buffer.get(scan++) != '\n') {
+                continue;
+            }
+            frameStart = head;
+            frameEnd = scan - 1;
+            head = scan;
+            if (discarding) {
+                // end of the oversize line
+                discarding = false;
+                continue;
+            }
+            return true;
+        }
+        if (head == 0 && tail == buffer.capacity()) {
+            // no line end in a full buffer
+            if (!discarding) {
+                discarding = true;
+                ++droppedFrames;
+            }
+            head = scan = tail;
+        }
+        return false;
+    }
+
+    private boolean nextLengthFrame() {
+        int tail = buffer.position();
+        if (corrupted) {
+            // drop everything
+            head = tail;
+            return false;
+        } else if (skipping > 0) {
+            int count = Math.min(skipping, tail - head);
+            head += count;
+            skipping -= count;
+            if (skipping > 0) {
+                return false;
+            }
+        }
+        if (tail - head < HEADER_SIZE) {
+            return false;
+        }
+        int length = buffer.getInt(head);
+        if (length < 0) {
+            ++droppedFrames;
+            corrupted = true;
+            head = tail;
+            return false;
+        } else if (length > maxFrameSize) {
+            ++droppedFrames;
+            head += HEADER_SIZE;
+            skipping = length;
+            return nextLengthFrame();
+        } else if (tail - head - HEADER_SIZE < length) {
+            return false;
+        }
+        frameStart = head + HEADER_SIZE;
+        frameEnd = frameStart + length;
+        head = frameEnd;
+        return true;
+    }
+
+    private void compact() {
+        if (head == 0) {
+            return;
+        }
+        int tail = buffer.position();
+        buffer.limit(tail);
+        buffer.position(head);
+        buffer.compact();
+        scan -= head;
+        head = 0;
+    }
+
+}
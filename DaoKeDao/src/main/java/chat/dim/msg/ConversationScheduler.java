@@ -0,0 +1,204 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.msg;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import chat.dim.protocol.ID;
+import chat.dim.protocol.Message;
+
+/**
+ *  Conversation Scheduler
+ *  <p>
+ *      Runs message tasks on striped single-thread executors,
+ *      the stripe is chosen by the conversation of the message:
+ *      the group ID if present, else the sender/receiver pair
+ *      (both directions share the same stripe).
+ *  </p>
+ *  <p>
+ *      Tasks in one conversation run one by one in submitted order,
+ *      tasks in different conversations run in parallel.
+ *  </p>
+ *
+ *  <blockquote><pre>
+ *  Usage:
+ *      ConversationScheduler scheduler = new ConversationScheduler();
+ *      scheduler.execute(msg, () -> process(msg));
+ *  </pre></blockquote>
+ */
+public class ConversationScheduler implements Closeable {
+
+    private final List<ExecutorService> stripes;
+
+    public ConversationScheduler(int concurrency, ThreadFactory threadFactory) {
+        super();
+        assert concurrency > 0 : "concurrency error: " + concurrency;
+        List<ExecutorService> executors = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; ++i) {
+            executors.add(new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), threadFactory));
+        }
+        this.stripes = executors;
+    }
+
+    public ConversationScheduler(int concurrency) {
+        this(concurrency, Executors.defaultThreadFactory());
+    }
+
+    public ConversationScheduler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public int getConcurrency() {
+        return stripes.size();
+    }
+
+    /**
+     *  Get stripe index for the message's conversation
+     */
+    public int getStripe(Message msg) {
+        return getStripe(hash(msg), stripes.size());
+    }
+
+    /**
+     *  Run task after the previous tasks in the same conversation
+     *
+     * @param msg  - message for choosing the conversation
+     * @param task - task
+     * @throws java.util.concurrent.RejectedExecutionException after shutdown
+     */
+    public void execute(Message msg, Runnable task) {
+        stripes.get(getStripe(msg)).execute(task);
+    }
+
+    /**
+     *  Run task after the previous tasks in the same conversation
+     *
+     * @param msg  - message for choosing the conversation
+     * @param task - task
+     * @return future result
+     * @throws java.util.concurrent.RejectedExecutionException after shutdown
+     */
+    public <T> Future<T> submit(Message msg, Callable<T> task) {
+        return stripes.get(getStripe(msg)).submit(task);
+    }
+
+    /**
+     *  Stop accepting tasks, the submitted ones will still run
+     */
+    public void shutdown() {
+        for (ExecutorService executor : stripes) {
+            executor.shutdown();
+        }
+    }
+
+    public boolean isTerminated() {
+        for (ExecutorService executor : stripes) {
+            if (!executor.isTerminated()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ExecutorService executor : stripes) {
+            long nanos = deadline - System.nanoTime();
+            if (!executor.awaitTermination(nanos, TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     *  Shutdown and wait for the submitted tasks to finish
+     */
+    @Override
+    public void close() {
+        shutdown();
+        boolean interrupted = false;
+        while (!isTerminated()) {
+            try {
+                awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //
+    //  Conversation hash
+    //
+
+    /**
+     *  Get hash code of the message's conversation
+     *
+     * @param msg - message
+     * @return same value for messages in one conversation
+     */
+    public static int hash(Message msg) {
+        return hash(msg.getSender(), msg.getReceiver(), msg.getGroup());
+    }
+
+    public static int hash(ID sender, ID receiver, ID group) {
+        int h;
+        if (group != null) {
+            h = group.hashCode();
+        } else if (receiver.isGroup()) {
+            // sent to the group, same as the copies split for members
+            h = receiver.hashCode();
+        } else {
+            // same value for both directions
+            h = sender.hashCode() ^ receiver.hashCode();
+        }
+        return h ^ (h >>> 16);
+    }
+
+    public static int getStripe(int hash, int concurrency) {
+        return (hash & 0x7FFFFFFF) % concurrency;
+    }
+
+}
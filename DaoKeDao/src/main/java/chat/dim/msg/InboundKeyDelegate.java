@@ -0,0 +1,81 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.msg;
+
+import java.util.List;
+
+import chat.dim.protocol.DecryptKey;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.SymmetricKey;
+import chat.dim.protocol.VerifyKey;
+
+/**
+ *  Keys for unpacking incoming messages
+ */
+public interface InboundKeyDelegate {
+
+    /**
+     *  Get public keys for verifying the signature
+     *
+     * @param sender - user ID
+     * @return empty list when not found
+     */
+    List<VerifyKey> getPublicKeysForVerification(ID sender);
+
+    /**
+     *  Get private keys for decrypting the cipher key
+     *
+     * @param receiver - user ID
+     * @return empty list when not found
+     */
+    List<DecryptKey> getPrivateKeysForDecryption(ID receiver);
+
+    /**
+     *  Get cipher key from sender to receiver (or group),
+     *  when the message carries no key, the last one will be reused
+     *
+     * @param sender   - from where (user ID)
+     * @param receiver - to where (contact or group ID)
+     * @param generate - generate when key not exists
+     * @return cipher key
+     */
+    SymmetricKey getCipherKey(ID sender, ID receiver, boolean generate);
+
+    /**
+     *  Cache the cipher key decrypted from message for reusing
+     *
+     * @param sender   - from where (user ID)
+     * @param receiver - to where (contact or group ID)
+     * @param key      - cipher key
+     */
+    void cacheCipherKey(ID sender, ID receiver, SymmetricKey key);
+
+}
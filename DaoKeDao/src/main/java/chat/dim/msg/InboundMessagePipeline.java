@@ -0,0 +1,389 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.msg;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import chat.dim.ext.MessageExtensionContext;
+import chat.dim.ext.SharedMessageExtensions;
+import chat.dim.format.JSONScanner;
+import chat.dim.protocol.DecryptKey;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.InstantMessage;
+import chat.dim.protocol.ReliableMessage;
+import chat.dim.protocol.SymmetricKey;
+import chat.dim.protocol.TransportableData;
+import chat.dim.protocol.VerifyKey;
+
+/**
+ *  Inbound Message Pipeline
+ *  <p>
+ *      Unpacks reliable messages into instant messages off the network thread:
+ *  </p>
+ *
+ *  <blockquote><pre>
+ *  1. messages are queued by conversation (sender/receiver or group),
+ *     each conversation is handled by one worker, so its order is kept;
+ *  2. a worker drains a batch from its queue, verifies the signatures
+ *     with the sender's keys (looked up once per sender in the batch);
+ *  3. decrypts the data with the cipher key, and emits the instant message
+ *     to the handler on the worker thread.
+ *  </pre></blockquote>
+ *
+ *  <p>
+ *      The queues are bounded, 'put()' blocks when the conversation's queue
+ *      is full, so a slow consumer will slow down the network reader.
+ *      Crypto is provided by the delegate, so stand-in keys can be used.
+ *  </p>
+ */
+public class InboundMessagePipeline implements Closeable {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    // end of queue
+    private static final Object STOP = new Object();
+
+    private final InboundKeyDelegate delegate;
+    private final Handler handler;
+    private final MessageExtensionContext context;
+    private final int batchSize;
+
+    private final List<BlockingQueue<Object>> queues;
+    private final List<Thread> workers;
+
+    private volatile boolean closed = false;
+
+    /**
+     *  Create pipeline and start workers
+     *
+     * @param delegate      - key delegate
+     * @param handler       - message handler
+     * @param concurrency   - number of workers
+     * @param capacity      - max messages waiting in all queues
+     * @param batchSize     - max messages drained by a worker each time
+     * @param threadFactory - thread factory for workers
+     * @param context       - context for parsing the instant messages
+     */
+    public InboundMessagePipeline(InboundKeyDelegate delegate, Handler handler,
+                                  int concurrency, int capacity, int batchSize, ThreadFactory threadFactory,
+                                  MessageExtensionContext context) {
+        super();
+        assert concurrency > 0 : "concurrency error: " + concurrency;
+        assert capacity >= concurrency : "capacity error: " + capacity;
+        assert batchSize > 0 : "batch size error: " + batchSize;
+        this.delegate = delegate;
+        this.handler = handler;
+        this.context = context;
+        this.batchSize = batchSize;
+        int size = (capacity + concurrency - 1) / concurrency;
+        List<BlockingQueue<Object>> queues = new ArrayList<>(concurrency);
+        List<Thread> workers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; ++i) {
+            BlockingQueue<Object> queue = new ArrayBlockingQueue<>(size);
+            queues.add(queue);
+            workers.add(threadFactory.newThread(() -> run(queue)));
+        }
+        this.queues = queues;
+        this.workers = workers;
+        for (Thread thread : workers) {
+            thread.start();
+        }
+    }
+
+    public InboundMessagePipeline(InboundKeyDelegate delegate, Handler handler,
+                                  int concurrency, int capacity, int batchSize, ThreadFactory threadFactory) {
+        this(delegate, handler, concurrency, capacity, batchSize, threadFactory,
+                SharedMessageExtensions.getDefaultContext());
+    }
+
+    public InboundMessagePipeline(InboundKeyDelegate delegate, Handler handler, int concurrency) {
+        this(delegate, handler, concurrency, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, Executors.defaultThreadFactory());
+    }
+
+    public InboundMessagePipeline(InboundKeyDelegate delegate, Handler handler) {
+        this(delegate, handler, Runtime.getRuntime().availableProcessors());
+    }
+
+    public InboundKeyDelegate getDelegate() {
+        return delegate;
+    }
+
+    public int getConcurrency() {
+        return queues.size();
+    }
+
+    /**
+     *  Get count of messages waiting in all queues
+     */
+    public int size() {
+        int count = 0;
+        for (BlockingQueue<Object> queue : queues) {
+            count += queue.size();
+        }
+        return count;
+    }
+
+    /**
+     *  Add message to its conversation's queue, wait when the queue is full
+     *
+     * @param msg - received message
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public void put(ReliableMessage msg) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("pipeline closed");
+        }
+        getQueue(msg).put(msg);
+    }
+
+    /**
+     *  Add message to its conversation's queue, wait until timeout
+     *
+     * @param msg     - received message
+     * @param timeout - max time to wait
+     * @param unit    - time unit
+     * @return false when the queue is still full
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public boolean offer(ReliableMessage msg, long timeout, TimeUnit unit) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("pipeline closed");
+        }
+        return getQueue(msg).offer(msg, timeout, unit);
+    }
+
+    /**
+     *  Stop accepting messages, wait for workers to finish the queued ones
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        boolean interrupted = false;
+        BlockingQueue<Object> queue;
+        for (int i = 0; i < queues.size(); ++i) {
+            queue = queues.get(i);
+            while (true) {
+                try {
+                    if (queue.offer(STOP, 100, TimeUnit.MILLISECONDS)) {
+                        break;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+                if (!workers.get(i).isAlive()) {
+                    // worker killed, nobody will take these messages
+                    queue.clear();
+                }
+            }
+        }
+        for (Thread thread : workers) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private BlockingQueue<Object> getQueue(ReliableMessage msg) {
+        int hash = ConversationScheduler.hash(msg);
+        return queues.get(ConversationScheduler.getStripe(hash, queues.size()));
+    }
+
+    // runs until STOP, a worker never leaves its queue while 'put()' may wait on it
+    private void run(BlockingQueue<Object> queue) {
+        List<Object> batch = new ArrayList<>(batchSize);
+        boolean running = true;
+        boolean interrupted = false;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                interrupted = true;
+                continue;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            int end = batch.indexOf(STOP);
+            if (end < 0) {
+                end = batch.size();
+            } else {
+                running = false;
+            }
+            process(batch, end);
+            batch.clear();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void process(List<Object> batch, int end) {
+        // keys for this batch
+        Map<ID, List<VerifyKey>> verifyKeys = new HashMap<>();
+        Map<ID, List<DecryptKey>> decryptKeys = new HashMap<>();
+        for (int i = 0; i < end; ++i) {
+            ReliableMessage rMsg = (ReliableMessage) batch.get(i);
+            try {
+                List<VerifyKey> keys = verifyKeys.computeIfAbsent(rMsg.getSender(),
+                        delegate::getPublicKeysForVerification);
+                byte[] data = verify(rMsg, keys);
+                InstantMessage iMsg = decrypt(rMsg, data, decryptKeys);
+                handler.onMessage(iMsg, rMsg);
+            } catch (RuntimeException e) {
+                onError(e, rMsg);
+            } catch (Throwable e) {
+                onError(new IllegalStateException("failed to process message: " + rMsg.getSender(), e), rMsg);
+            }
+        }
+    }
+
+    private void onError(RuntimeException error, ReliableMessage rMsg) {
+        try {
+            handler.onError(error, rMsg);
+        } catch (Throwable e) {
+            // report it, but keep the worker running
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    private static byte[] verify(ReliableMessage rMsg, List<VerifyKey> keys) {
+        TransportableData data = rMsg.getData();
+        TransportableData signature = rMsg.getSignature();
+        byte[] ciphertext = data == null ? null : data.getBytes();
+        byte[] sig = signature == null ? null : signature.getBytes();
+        if (ciphertext == null || sig == null) {
+            throw new IllegalArgumentException("message data/signature error: " + rMsg.getSender());
+        }
+        if (keys != null) {
+            for (VerifyKey key : keys) {
+                if (key.verify(ciphertext, sig)) {
+                    return ciphertext;
+                }
+            }
+        }
+        throw new IllegalStateException("signature not match: " + rMsg.getSender());
+    }
+
+    private InstantMessage decrypt(ReliableMessage rMsg, byte[] data, Map<ID, List<DecryptKey>> decryptKeys) {
+        ID sender = rMsg.getSender();
+        ID receiver = rMsg.getReceiver();
+        ID group = rMsg.getGroup();
+        ID target = group != null ? group : receiver;
+        // cipher key
+        SymmetricKey password;
+        Object key = rMsg.getEncryptedKeys().get(receiver.toString());
+        if (key == null) {
+            // reuse the last key
+            password = delegate.getCipherKey(sender, target, false);
+        } else {
+            List<DecryptKey> keys = decryptKeys.computeIfAbsent(receiver, delegate::getPrivateKeysForDecryption);
+            password = decryptKey(key, keys);
+            if (password != null) {
+                delegate.cacheCipherKey(sender, target, password);
+            }
+        }
+        if (password == null) {
+            throw new IllegalStateException("cipher key not found: " + sender + " -> " + target);
+        }
+        // decrypt content
+        byte[] plaintext = password.decrypt(data, rMsg.toMap());
+        if (plaintext == null) {
+            throw new IllegalStateException("failed to decrypt message: " + sender + " -> " + target);
+        }
+        Map<String, Object> info = rMsg.copyMap(false);
+        info.remove("data");
+        info.remove("key");
+        info.remove("keys");
+        info.remove("signature");
+        info.put("content", deserialize(plaintext));
+        InstantMessage iMsg = context.parseInstantMessage(info);
+        if (iMsg == null) {
+            throw new IllegalArgumentException("message content error: " + sender + " -> " + target);
+        }
+        return iMsg;
+    }
+
+    private static SymmetricKey decryptKey(Object key, List<DecryptKey> keys) {
+        TransportableData ted = TransportableData.parse(key);
+        byte[] encrypted = ted == null ? null : ted.getBytes();
+        if (encrypted == null || keys == null) {
+            return null;
+        }
+        for (DecryptKey privateKey : keys) {
+            byte[] plaintext = privateKey.decrypt(encrypted, new HashMap<>());
+            if (plaintext != null) {
+                return SymmetricKey.parse(deserialize(plaintext));
+            }
+        }
+        return null;
+    }
+
+    private static Object deserialize(byte[] data) {
+        JSONScanner scanner = new JSONScanner(ByteBuffer.wrap(data));
+        Object value = scanner.readValue();
+        scanner.endDocument();
+        return value;
+    }
+
+    /**
+     *  Receives unpacked messages on worker threads,
+     *  messages in the same conversation arrive in order;
+     *  anything thrown by the handler goes to the uncaught exception handler
+     *  of the worker thread, and the worker carries on
+     */
+    public interface Handler {
+
+        void onMessage(InstantMessage iMsg, ReliableMessage rMsg);
+
+        void onError(RuntimeException error, ReliableMessage rMsg);
+    }
+
+}
@@ -0,0 +1,79 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.msg;
+
+import java.util.List;
+
+import chat.dim.protocol.EncryptKey;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.SignKey;
+import chat.dim.protocol.SymmetricKey;
+
+/**
+ *  Keys for packing outgoing messages
+ */
+public interface OutboundKeyDelegate {
+
+    /**
+     *  Get cipher key for encrypting message from sender to receiver (or group)
+     *
+     * @param sender   - from where (user ID)
+     * @param receiver - to where (contact or group ID)
+     * @param generate - generate when key not exists
+     * @return cipher key
+     */
+    SymmetricKey getCipherKey(ID sender, ID receiver, boolean generate);
+
+    /**
+     *  Get public key for encrypting the cipher key
+     *
+     * @param receiver - user ID
+     * @return null when not found
+     */
+    EncryptKey getPublicKeyForEncryption(ID receiver);
+
+    /**
+     *  Get private key for signing the encrypted data
+     *
+     * @param sender - user ID
+     * @return sign key
+     */
+    SignKey getPrivateKeyForSignature(ID sender);
+
+    /**
+     *  Get members for group message
+     *
+     * @param group - group ID
+     * @return member ID list
+     */
+    List<ID> getMembers(ID group);
+
+}
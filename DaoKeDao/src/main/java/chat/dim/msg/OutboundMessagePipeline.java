@@ -0,0 +1,254 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.msg;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import chat.dim.ext.BatchParser;
+import chat.dim.ext.MessageExtensionContext;
+import chat.dim.ext.SharedMessageExtensions;
+import chat.dim.format.Base64;
+import chat.dim.format.JSON;
+import chat.dim.format.UTF8;
+import chat.dim.protocol.EncryptKey;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.InstantMessage;
+import chat.dim.protocol.ReliableMessage;
+import chat.dim.protocol.SignKey;
+import chat.dim.protocol.SymmetricKey;
+import chat.dim.protocol.TransportableData;
+
+/**
+ *  Outbound Message Pipeline
+ *  <p>
+ *      Packs a batch of instant messages into reliable messages:
+ *  </p>
+ *
+ *  <blockquote><pre>
+ *  1. get one cipher key for each (sender, receiver/group) in the batch;
+ *  2. encrypt each cipher key for every member, in parallel,
+ *     (once per batch, shared by all messages to the same receiver/group);
+ *  3. encrypt content with cipher key, and sign the encrypted data,
+ *     in parallel for each message.
+ *  </pre></blockquote>
+ *
+ *  <p>
+ *      The results are in the same order as the instant messages,
+ *      a failed message will not stop the others.
+ *      Crypto is provided by the delegate, so stand-in keys can be used;
+ *      content and cipher keys are serialized by the 'JSON'/'UTF8' coders,
+ *      and binary fields take the wire form of the TransportableData factory.
+ *  </p>
+ */
+public class OutboundMessagePipeline {
+
+    // crypto work is heavy, split even small batches
+    public static final int DEFAULT_THRESHOLD = 4;
+
+    private final OutboundKeyDelegate delegate;
+    private final BatchParser workers;
+    private final MessageExtensionContext context;
+
+    public OutboundMessagePipeline(OutboundKeyDelegate delegate, BatchParser workers,
+                                   MessageExtensionContext context) {
+        super();
+        this.delegate = delegate;
+        this.workers = workers;
+        this.context = context;
+    }
+
+    public OutboundMessagePipeline(OutboundKeyDelegate delegate, BatchParser workers) {
+        this(delegate, workers, SharedMessageExtensions.getDefaultContext());
+    }
+
+    public OutboundMessagePipeline(OutboundKeyDelegate delegate) {
+        this(delegate, new BatchParser(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD));
+    }
+
+    public OutboundKeyDelegate getDelegate() {
+        return delegate;
+    }
+
+    /**
+     *  Encrypt and sign messages
+     *
+     * @param messages - instant messages
+     * @return reliable messages in the same order
+     */
+    public List<BatchParser.Result<ReliableMessage>> process(List<InstantMessage> messages) {
+        // 1. cipher keys & sign keys, once for each conversation/sender
+        Map<String, Conversation> conversations = new HashMap<>();
+        Map<ID, SignKey> signKeys = new HashMap<>();
+        List<Conversation> plans = new ArrayList<>(messages.size());
+        List<KeyTask> keyTasks = new ArrayList<>();
+        for (InstantMessage msg : messages) {
+            ID sender = msg.getSender();
+            ID receiver = msg.getReceiver();
+            String direction = sender + "\n" + receiver;
+            Conversation chat = conversations.get(direction);
+            if (chat == null) {
+                chat = new Conversation(sender, receiver);
+                chat.password = delegate.getCipherKey(sender, receiver, true);
+                if (chat.password != null && !receiver.isBroadcast()) {
+                    chat.members = receiver.isGroup() ? delegate.getMembers(receiver) : Collections.singletonList(receiver);
+                    chat.keys = new HashMap<>();
+                    byte[] key = serialize(chat.password.toMap());
+                    for (ID member : chat.members) {
+                        keyTasks.add(new KeyTask(chat, member, key));
+                    }
+                }
+                conversations.put(direction, chat);
+            }
+            plans.add(chat);
+            signKeys.computeIfAbsent(sender, delegate::getPrivateKeyForSignature);
+        }
+        // 2. encrypt cipher keys for members
+        List<BatchParser.Result<Object>> encryptedKeys = workers.parse(keyTasks, this::encryptKey);
+        for (BatchParser.Result<Object> result : encryptedKeys) {
+            if (result.getValue() != null) {
+                // members without public key are skipped
+                KeyTask task = keyTasks.get(result.index);
+                task.conversation.keys.put(task.member.toString(), result.getValue());
+            }
+        }
+        // 3. encrypt & sign messages
+        List<Object> tasks = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); ++i) {
+            InstantMessage msg = messages.get(i);
+            tasks.add(new MessageTask(msg, plans.get(i), signKeys.get(msg.getSender())));
+        }
+        return workers.parse(tasks, this::pack);
+    }
+
+    private Object encryptKey(Object item) {
+        KeyTask task = (KeyTask) item;
+        EncryptKey publicKey = delegate.getPublicKeyForEncryption(task.member);
+        if (publicKey == null) {
+            return null;
+        }
+        return encode(publicKey.encrypt(task.key, new HashMap<>()));
+    }
+
+    private ReliableMessage pack(Object item) {
+        MessageTask task = (MessageTask) item;
+        Conversation chat = task.conversation;
+        if (chat.password == null) {
+            throw new IllegalStateException("cipher key not found: " + chat.sender + " -> " + chat.receiver);
+        } else if (task.signKey == null) {
+            throw new IllegalStateException("sign key not found: " + chat.sender);
+        }
+        Map<String, Object> info = task.message.copyMap(false);
+        Object content = info.remove("content");
+        // encrypt content
+        Map<String, Object> params = new HashMap<>();
+        byte[] data = chat.password.encrypt(serialize((Map<?, ?>) content), params);
+        // extra params from cipher key, e.g.: 'IV'
+        info.putAll(params);
+        info.put("data", encode(data));
+        // encrypted keys, none for broadcast message
+        if (chat.keys == null) {
+            assert chat.receiver.isBroadcast() : "message keys error: " + chat.receiver;
+        } else if (chat.receiver.isGroup()) {
+            // shared by messages in this batch
+            info.put("keys", Collections.unmodifiableMap(chat.keys));
+        } else {
+            Object key = chat.keys.get(chat.receiver.toString());
+            if (key == null) {
+                throw new IllegalStateException("public key not found: " + chat.receiver);
+            }
+            info.put("key", key);
+        }
+        // sign encrypted data
+        info.put("signature", encode(task.signKey.sign(data)));
+        return context.parseReliableMessage(info);
+    }
+
+    private static byte[] serialize(Map<?, ?> info) {
+        return UTF8.encode(JSON.encode(info));
+    }
+
+    // wire form from the TED factory, same as other messages
+    private static Object encode(byte[] data) {
+        TransportableData ted = TransportableData.parse(Base64.encode(data));
+        if (ted == null) {
+            throw new IllegalStateException("failed to encode data: " + data.length);
+        }
+        return ted.serialize();
+    }
+
+    private static final class Conversation {
+
+        final ID sender;
+        final ID receiver;
+
+        SymmetricKey password;
+        List<ID> members;
+        // member ID => encrypted key, null for broadcast message
+        Map<String, Object> keys;
+
+        Conversation(ID sender, ID receiver) {
+            this.sender = sender;
+            this.receiver = receiver;
+        }
+    }
+
+    private static final class KeyTask {
+
+        final Conversation conversation;
+        final ID member;
+        final byte[] key;
+
+        KeyTask(Conversation conversation, ID member, byte[] key) {
+            this.conversation = conversation;
+            this.member = member;
+            this.key = key;
+        }
+    }
+
+    private static final class MessageTask {
+
+        final InstantMessage message;
+        final Conversation conversation;
+        final SignKey signKey;
+
+        MessageTask(InstantMessage message, Conversation conversation, SignKey signKey) {
+            this.message = message;
+            this.conversation = conversation;
+            this.signKey = signKey;
+        }
+    }
+
+}
@@ -32,8 +32,12 @@ package chat.dim.protocol;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import chat.dim.ext.SharedMessageExtensions;
 import chat.dim.type.Mapper;
@@ -59,7 +63,7 @@ import chat.dim.type.Mapper;
  *  }
  *  </pre></blockquote>
  */
-public interface Content extends Mapper {
+public interface Content extends Mapper, Timestamped {
 
     // content type
     String getType();
@@ -99,19 +103,42 @@ public interface Content extends Mapper {
         return array;
     }
 
+    /**
+     *  Parse items lazily, one by one
+     *  <p>
+     *      Unlike 'convert()', this will not build the whole list,
+     *      invalid items are skipped, and the caller can stop at any time.
+     *  </p>
+     *
+     * @param array - content info list
+     * @return Content stream
+     */
+    static Stream<Content> stream(Iterable<?> array) {
+        return StreamSupport.stream(array.spliterator(), false)
+                .map(Content::parse)
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     *  Iterate items lazily, invalid items are skipped, see 'stream()'
+     */
+    static Iterator<Content> iterator(Iterable<?> array) {
+        return stream(array).iterator();
+    }
+
     //
     //  Factory methods
     //
 
     static Content parse(Object content) {
-        return SharedMessageExtensions.contentHelper.parseContent(content);
+        return SharedMessageExtensions.getContentHelper().parseContent(content);
     }
 
     static Factory getFactory(String type) {
-        return SharedMessageExtensions.contentHelper.getContentFactory(type);
+        return SharedMessageExtensions.getContentHelper().getContentFactory(type);
     }
     static void setFactory(String type, Factory factory) {
-        SharedMessageExtensions.contentHelper.setContentFactory(type, factory);
+        SharedMessageExtensions.getContentHelper().setContentFactory(type, factory);
     }
 
     /**
@@ -51,7 +51,7 @@ import chat.dim.type.Mapper;
  *  }
  *  </pre></blockquote>
  */
-public interface Envelope extends Mapper {
+public interface Envelope extends Mapper, Timestamped {
 
     // message from
     ID getSender();
@@ -87,17 +87,20 @@ public interface Envelope extends Mapper {
     //  Factory methods
     //
     static Envelope create(ID from, ID to, Date when) {
-        return SharedMessageExtensions.envelopeHelper.createEnvelope(from, to, when);
+        return SharedMessageExtensions.getEnvelopeHelper().createEnvelope(from, to, when);
+    }
+    static Envelope create(ID from, ID to, long millis) {
+        return SharedMessageExtensions.getEnvelopeHelper().createEnvelope(from, to, millis);
     }
     static Envelope parse(Object env) {
-        return SharedMessageExtensions.envelopeHelper.parseEnvelope(env);
+        return SharedMessageExtensions.getEnvelopeHelper().parseEnvelope(env);
     }
 
     static Factory getFactory() {
-        return SharedMessageExtensions.envelopeHelper.getEnvelopeFactory();
+        return SharedMessageExtensions.getEnvelopeHelper().getEnvelopeFactory();
     }
     static void setFactory(Factory factory) {
-        SharedMessageExtensions.envelopeHelper.setEnvelopeFactory(factory);
+        SharedMessageExtensions.getEnvelopeHelper().setEnvelopeFactory(factory);
     }
 
     /**
@@ -115,6 +118,18 @@ public interface Envelope extends Mapper {
          */
         Envelope createEnvelope(ID from, ID to, Date when);
 
+        /**
+         *  Create envelope
+         *
+         * @param from   - sender ID
+         * @param to     - receiver ID
+         * @param millis - message time in milliseconds
+         * @return Envelope
+         */
+        default Envelope createEnvelope(ID from, ID to, long millis) {
+            return createEnvelope(from, to, new Date(millis));
+        }
+
         /**
          *  Parse map object to envelope
          *
@@ -32,8 +32,12 @@ package chat.dim.protocol;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import chat.dim.ext.SharedMessageExtensions;
 
@@ -86,26 +90,49 @@ public interface InstantMessage extends Message {
         return array;
     }
 
+    /**
+     *  Parse items lazily, one by one
+     *  <p>
+     *      Unlike 'convert()', this will not build the whole list,
+     *      invalid items are skipped, and the caller can stop at any time.
+     *  </p>
+     *
+     * @param array - message info list
+     * @return InstantMessage stream
+     */
+    static Stream<InstantMessage> stream(Iterable<?> array) {
+        return StreamSupport.stream(array.spliterator(), false)
+                .map(InstantMessage::parse)
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     *  Iterate items lazily, invalid items are skipped, see 'stream()'
+     */
+    static Iterator<InstantMessage> iterator(Iterable<?> array) {
+        return stream(array).iterator();
+    }
+
     //
     //  Factory methods
     //
 
     static InstantMessage create(Envelope head, Content body) {
-        return SharedMessageExtensions.instantHelper.createInstantMessage(head, body);
+        return SharedMessageExtensions.getInstantHelper().createInstantMessage(head, body);
     }
     static InstantMessage parse(Object msg) {
-        return SharedMessageExtensions.instantHelper.parseInstantMessage(msg);
+        return SharedMessageExtensions.getInstantHelper().parseInstantMessage(msg);
     }
 
     static long generateSerialNumber(String msgType, Date now) {
-        return SharedMessageExtensions.instantHelper.generateSerialNumber(msgType, now);
+        return SharedMessageExtensions.getInstantHelper().generateSerialNumber(msgType, now);
     }
 
     static Factory getFactory() {
-        return SharedMessageExtensions.instantHelper.getInstantMessageFactory();
+        return SharedMessageExtensions.getInstantHelper().getInstantMessageFactory();
     }
     static void setFactory(Factory factory) {
-        SharedMessageExtensions.instantHelper.setInstantMessageFactory(factory);
+        SharedMessageExtensions.getInstantHelper().setInstantMessageFactory(factory);
     }
 
     /**
@@ -75,7 +75,7 @@ import chat.dim.type.Mapper;
  *  }
  *  </pre></blockquote>
  */
-public interface Message extends Mapper {
+public interface Message extends Mapper, Timestamped {
 
     // message envelope
     Envelope getEnvelope();
@@ -31,8 +31,12 @@
 package chat.dim.protocol;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import chat.dim.ext.SharedMessageExtensions;
 
@@ -63,6 +67,15 @@ import chat.dim.ext.SharedMessageExtensions;
  */
 public interface ReliableMessage extends SecureMessage {
 
+    /**
+     *  Signature for 'data'
+     *  <p>
+     *      Same as 'data', it should be decoded on first access,
+     *      and the original encoded string must be kept for relaying.
+     *  </p>
+     *
+     * @return TransportableData
+     */
     TransportableData getSignature();
 
     //
@@ -89,19 +102,42 @@ public interface ReliableMessage extends SecureMessage {
         return array;
     }
 
+    /**
+     *  Parse items lazily, one by one
+     *  <p>
+     *      Unlike 'convert()', this will not build the whole list,
+     *      invalid items are skipped, and the caller can stop at any time.
+     *  </p>
+     *
+     * @param array - message info list
+     * @return ReliableMessage stream
+     */
+    static Stream<ReliableMessage> stream(Iterable<?> array) {
+        return StreamSupport.stream(array.spliterator(), false)
+                .map(ReliableMessage::parse)
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     *  Iterate items lazily, invalid items are skipped, see 'stream()'
+     */
+    static Iterator<ReliableMessage> iterator(Iterable<?> array) {
+        return stream(array).iterator();
+    }
+
     //
     //  Factory methods
     //
 
     static ReliableMessage parse(Object msg) {
-        return SharedMessageExtensions.reliableHelper.parseReliableMessage(msg);
+        return SharedMessageExtensions.getReliableHelper().parseReliableMessage(msg);
     }
 
     static Factory getFactory() {
-        return SharedMessageExtensions.reliableHelper.getReliableMessageFactory();
+        return SharedMessageExtensions.getReliableHelper().getReliableMessageFactory();
     }
     static void setFactory(Factory factory) {
-        SharedMessageExtensions.reliableHelper.setReliableMessageFactory(factory);
+        SharedMessageExtensions.getReliableHelper().setReliableMessageFactory(factory);
     }
 
     /**
@@ -58,6 +58,20 @@ import chat.dim.ext.SharedMessageExtensions;
  */
 public interface SecureMessage extends Message {
 
+    /**
+     *  Encrypted content data
+     *  <p>
+     *      Implementations should decode 'data' on first access and cache it,
+     *      and must keep the original encoded string in the message map,
+     *      so a relayed message can be forwarded by 'toMap()' untouched,
+     *      without any decode/encode round trip.
+     *  </p>
+     *  <p>
+     *      The original string can also be taken by 'getData().serialize()'.
+     *  </p>
+     *
+     * @return TransportableData
+     */
     TransportableData getData();
 
     // String => String
@@ -67,14 +81,14 @@ public interface SecureMessage extends Message {
     //  Factory methods
     //
     static SecureMessage parse(Object msg) {
-        return SharedMessageExtensions.secureHelper.parseSecureMessage(msg);
+        return SharedMessageExtensions.getSecureHelper().parseSecureMessage(msg);
     }
 
     static Factory getFactory() {
-        return SharedMessageExtensions.secureHelper.getSecureMessageFactory();
+        return SharedMessageExtensions.getSecureHelper().getSecureMessageFactory();
     }
     static void setFactory(Factory factory) {
-        SharedMessageExtensions.secureHelper.setSecureMessageFactory(factory);
+        SharedMessageExtensions.getSecureHelper().setSecureMessageFactory(factory);
     }
 
     /**
@@ -0,0 +1,272 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.store;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import chat.dim.protocol.Envelope;
+import chat.dim.protocol.ID;
+
+/**
+ *  Message Index
+ *  <p>
+ *      Keeps record addresses for each receiver and each group,
+ *      sorted by message time, so "messages for X since T" can be answered
+ *      from the index alone, without parsing any message body.
+ *  </p>
+ *  <p>
+ *      Entries are added one by one as messages are stored,
+ *      each key is locked separately, so different receivers never block
+ *      each other; range queries return a snapshot of addresses.
+ *  </p>
+ */
+public class MessageIndex {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final Map<String, Postings> receivers = new ConcurrentHashMap<>();
+    private final Map<String, Postings> groups = new ConcurrentHashMap<>();
+
+    public void add(Envelope env, long address) {
+        ID group = env.getGroup();
+        add(env.getReceiver().toString(), group == null ? null : group.toString(), env.getTimeMillis(), address);
+    }
+
+    public void add(String receiver, String group, long time, long address) {
+        add(receivers, receiver, time, address);
+        if (group != null) {
+            add(groups, group, time, address);
+        }
+    }
+
+    private static void add(Map<String, Postings> table, String key, long time, long address) {
+        // in the same atomic step as dropping an empty list, see 'remove()'
+        table.compute(key, (k, value) -> {
+            if (value == null) {
+                value = new Postings();
+            }
+            value.add(time, address);
+            return value;
+        });
+    }
+
+    public void remove(String receiver, String group, long time, long address) {
+        remove(receivers, receiver, time, address);
+        if (group != null) {
+            remove(groups, group, time, address);
+        }
+    }
+
+    private static void remove(Map<String, Postings> table, String key, long time, long address) {
+        // drop empty list
+        table.computeIfPresent(key, (k, value) -> value.remove(time, address) == 0 ? null : value);
+    }
+
+    public void clear() {
+        receivers.clear();
+        groups.clear();
+    }
+
+    /**
+     *  Get addresses of messages to the receiver, in time order
+     *
+     * @param receiver - receiver ID
+     * @param since    - start time in milliseconds (inclusive)
+     * @param until    - end time in milliseconds (exclusive)
+     * @return record addresses
+     */
+    public long[] findByReceiver(ID receiver, long since, long until) {
+        return find(receivers, receiver.toString(), since, until);
+    }
+
+    /**
+     *  Get addresses of messages in the group, in time order
+     *
+     * @param group - group ID
+     * @param since - start time in milliseconds (inclusive)
+     * @param until - end time in milliseconds (exclusive)
+     * @return record addresses
+     */
+    public long[] findByGroup(ID group, long since, long until) {
+        return find(groups, group.toString(), since, until);
+    }
+
+    public int countByReceiver(ID receiver) {
+        Postings postings = receivers.get(receiver.toString());
+        return postings == null ? 0 : postings.size();
+    }
+
+    public int countByGroup(ID group) {
+        Postings postings = groups.get(group.toString());
+        return postings == null ? 0 : postings.size();
+    }
+
+    private static long[] find(Map<String, Postings> table, String key, long since, long until) {
+        Postings postings = table.get(key);
+        return postings == null || since >= until ? EMPTY : postings.find(since, until);
+    }
+
+    /**
+     *  Addresses sorted by time, for one key
+     *  <p>
+     *      Removing is O(log n): the oldest entries are dropped by moving
+     *      the head, others are marked and squeezed out later in one pass,
+     *      so delivering a backlog in order never shifts the arrays.
+     *  </p>
+     */
+    private static final class Postings {
+
+        // removed entry, record addresses are never negative this far
+        private static final long REMOVED = Long.MIN_VALUE;
+
+        private long[] times = new long[4];
+        private long[] addresses = new long[4];
+        private int head = 0;     // entries before head are removed
+        private int size = 0;     // end of entries
+        private int removed = 0;  // marked entries after head
+
+        synchronized int size() {
+            return size - head - removed;
+        }
+
+        synchronized void add(long time, long address) {
+            if (size == times.length) {
+                if (head + removed > size >> 2) {
+                    compact();
+                } else {
+                    int capacity = size + (size >> 1);
+                    times = Arrays.copyOf(times, capacity);
+                    addresses = Arrays.copyOf(addresses, capacity);
+                }
+            }
+            // usually appended at the end
+            int pos = size;
+            if (pos > head && times[pos - 1] > time) {
+                pos = upperBound(time);
+                System.arraycopy(times, pos, times, pos + 1, size - pos);
+                System.arraycopy(addresses, pos, addresses, pos + 1, size - pos);
+            }
+            times[pos] = time;
+            addresses[pos] = address;
+            ++size;
+        }
+
+        synchronized int remove(long time, long address) {
+            for (int pos = lowerBound(time); pos < size && times[pos] == time; ++pos) {
+                if (addresses[pos] == address) {
+                    addresses[pos] = REMOVED;
+                    ++removed;
+                    if (pos == head) {
+                        // skip all removed entries at the head
+                        while (head < size && addresses[head] == REMOVED) {
+                            ++head;
+                            --removed;
+                        }
+                        if (head == size) {
+                            head = size = 0;
+                        }
+                    } else if (removed > size - head - removed) {
+                        // more marked than alive
+                        compact();
+                    }
+                    break;
+                }
+            }
+            return size - head - removed;
+        }
+
+        synchronized long[] find(long since, long until) {
+            int start = lowerBound(since);
+            int end = lowerBound(until);
+            if (start >= end) {
+                return EMPTY;
+            } else if (removed == 0) {
+                return Arrays.copyOfRange(addresses, start, end);
+            }
+            long[] array = new long[end - start];
+            int count = 0;
+            for (int pos = start; pos < end; ++pos) {
+                if (addresses[pos] != REMOVED) {
+                    array[count++] = addresses[pos];
+                }
+            }
+            return count == array.length ? array : Arrays.copyOf(array, count);
+        }
+
+        // move alive entries to the front
+        private void compact() {
+            int count = 0;
+            for (int pos = head; pos < size; ++pos) {
+                if (addresses[pos] != REMOVED) {
+                    times[count] = times[pos];
+                    addresses[count] = addresses[pos];
+                    ++count;
+                }
+            }
+            head = 0;
+            size = count;
+            removed = 0;
+        }
+
+        // first position with time >= value
+        private int lowerBound(long value) {
+            int low = head, high = size;
+            int mid;
+            while (low < high) {
+                mid = (low + high) >>> 1;
+                if (times[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // first position with time > value
+        private int upperBound(long value) {
+            int low = head, high = size;
+            int mid;
+            while (low < high) {
+                mid = (low + high) >>> 1;
+                if (times[mid] <= value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+}
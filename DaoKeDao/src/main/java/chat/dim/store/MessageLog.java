@@ -0,0 +1,707 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.store;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import chat.dim.format.BinaryMessageCoder;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.ReliableMessage;
+
+/**
+ *  Append-only Message Log
+ *  <p>
+ *      Reliable messages are appended to memory-mapped segment files,
+ *      each record keeps the envelope fields (receiver, group, time) in
+ *      its header, so records can be selected without decoding the body;
+ *      the body is encoded by 'BinaryMessageCoder' and decoded only when
+ *      the message is taken from the entry.
+ *      Live records are indexed by receiver/group and time ('MessageIndex'),
+ *      the index is rebuilt from the record headers when opening.
+ *  </p>
+ *
+ *  <blockquote><pre>
+ *  record format:
+ *      int    length of the rest, written last (0 means end of segment)
+ *      byte   flags (DELIVERED)
+ *      long   time (milliseconds)
+ *      short  receiver length, receiver (UTF-8)
+ *      short  group length, group (UTF-8)
+ *      ...    message body
+ *  </pre></blockquote>
+ *
+ *  <p>
+ *      A record is addressed by (segment id &lt;&lt; 32 | offset).
+ *      Delivered records are flagged in place, 'compact()' drops sealed
+ *      segments with no live records, and moves the live records out of
+ *      sparse ones to the end of the log (so the replay order is the order
+ *      of appending, not of message time).
+ *  </p>
+ */
+public class MessageLog implements Closeable, Iterable<ReliableMessage> {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    static final byte DELIVERED = 0x01;
+
+    private static final int LENGTH_SIZE = 4;
+    private static final int FLAGS_OFFSET = LENGTH_SIZE;
+    private static final int TIME_OFFSET = FLAGS_OFFSET + 1;
+    private static final int RECEIVER_OFFSET = TIME_OFFSET + 8;
+
+    private static final String SUFFIX = ".seg";
+
+    private final File directory;
+    private final int segmentSize;
+
+    // guarded by this
+    private final List<Segment> segments = new ArrayList<>();
+    private Segment active;
+
+    // live records by receiver/group and time
+    private final MessageIndex index = new MessageIndex();
+
+    private volatile boolean closed = false;
+
+    public MessageLog(File directory, int segmentSize) throws IOException {
+        super();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("failed to create directory: " + directory);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        open();
+    }
+
+    public MessageLog(File directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public MessageIndex getIndex() {
+        return index;
+    }
+
+    private void open() throws IOException {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files != null) {
+            List<Integer> ids = new ArrayList<>();
+            for (File file : files) {
+                String name = file.getName();
+                try {
+                    ids.add(Integer.parseInt(name.substring(0, name.length() - SUFFIX.length()), 16));
+                } catch (NumberFormatException e) {
+                    // not a segment
+                }
+            }
+            ids.sort(null);
+            for (int id : ids) {
+                segments.add(Segment.open(getFile(id), id, 0));
+            }
+        }
+        if (segments.isEmpty()) {
+            active = Segment.open(getFile(0), 0, segmentSize);
+            segments.add(active);
+        } else {
+            active = segments.get(segments.size() - 1);
+        }
+        // rebuild index from record headers
+        Iterator<Entry> entries = new EntryIterator(segments);
+        Entry entry;
+        while (entries.hasNext()) {
+            entry = entries.next();
+            index.add(entry.getReceiver(), entry.getGroup(), entry.getTime(), entry.getAddress());
+        }
+    }
+
+    private File getFile(int id) {
+        return new File(directory, String.format("%08x", id) + SUFFIX);
+    }
+
+    //
+    //  Writing
+    //
+
+    /**
+     *  Append message to the end of log
+     *
+     * @param msg - reliable message
+     * @return record address
+     * @throws IllegalArgumentException when message is larger than one segment
+     */
+    public synchronized long append(ReliableMessage msg) throws IOException {
+        ID group = msg.getGroup();
+        return append(msg.getReceiver().toString(), group == null ? null : group.toString(),
+                msg.getTimeMillis(), msg.toMap());
+    }
+
+    private long append(String receiver, String group, long time, Object body) throws IOException {
+        checkOpen();
+        byte[] to = receiver.getBytes(StandardCharsets.UTF_8);
+        byte[] gid = group == null ? new byte[0] : group.getBytes(StandardCharsets.UTF_8);
+        if (to.length > 0xFFFF || gid.length > 0xFFFF) {
+            throw new IllegalArgumentException("ID too long: " + receiver + ", " + group);
+        }
+        Segment segment = active;
+        int offset = segment.write(to, gid, time, body);
+        if (offset < 0) {
+            if (segment.position == 0) {
+                throw new IllegalArgumentException("message too large for segment: " + segmentSize);
+            }
+            segment = roll();
+            offset = segment.write(to, gid, time, body);
+            if (offset < 0) {
+                throw new IllegalArgumentException("message too large for segment: " + segmentSize);
+            }
+        }
+        long address = address(segment.id, offset);
+        index.add(receiver, group, time, address);
+        return address;
+    }
+
+    private Segment roll() throws IOException {
+        int id = active.id + 1;
+        active = Segment.open(getFile(id), id, segmentSize);
+        segments.add(active);
+        return active;
+    }
+
+    /**
+     *  Flag the record as delivered, it will be dropped by compaction
+     */
+    public synchronized void markDelivered(long address) {
+        checkOpen();
+        Segment segment = getSegment(segmentId(address));
+        if (segment != null && segment.markDelivered(offset(address))) {
+            Entry entry = segment.entry(offset(address));
+            index.remove(entry.getReceiver(), entry.getGroup(), entry.getTime(), address);
+        }
+    }
+
+    /**
+     *  Write changes to disk
+     */
+    public synchronized void flush() {
+        if (!closed) {
+            for (Segment segment : segments) {
+                segment.buffer.force();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        flush();
+        closed = true;
+        for (Segment segment : segments) {
+            segment.close();
+        }
+        segments.clear();
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("message log closed: " + directory);
+        }
+    }
+
+    //
+    //  Compaction
+    //
+
+    /**
+     *  Drop delivered records from sealed segments
+     *
+     * @return number of segments removed
+     */
+    public synchronized int compact() throws IOException {
+        checkOpen();
+        int removed = 0;
+        // only the segments sealed before compaction
+        int sealed = active.id;
+        Segment segment;
+        for (int i = 0; i < segments.size(); ) {
+            segment = segments.get(i);
+            if (segment.id >= sealed) {
+                break;
+            } else if (segment.liveBytes * 4 > segment.capacity) {
+                // dense enough
+                ++i;
+                continue;
+            }
+            // move live records to the end
+            int offset = 0;
+            int end = segment.position;
+            while (offset < end) {
+                Entry entry = segment.entry(offset);
+                if (!entry.isDelivered()) {
+                    String receiver = entry.getReceiver();
+                    String group = entry.getGroup();
+                    long time = entry.getTime();
+                    index.remove(receiver, group, time, entry.getAddress());
+                    append(receiver, group, time, entry.getBody());
+                }
+                offset += LENGTH_SIZE + segment.buffer.getInt(offset);
+            }
+            segments.remove(i);
+            segment.close();
+            segment.delete();
+            ++removed;
+        }
+        return removed;
+    }
+
+    //
+    //  Reading
+    //
+
+    /**
+     *  Get record at address
+     *
+     * @return null when not found
+     */
+    public Entry getEntry(long address) {
+        Segment segment;
+        synchronized (this) {
+            checkOpen();
+            segment = getSegment(segmentId(address));
+        }
+        int offset = offset(address);
+        if (segment == null || offset < 0 || offset >= segment.position) {
+            return null;
+        }
+        return segment.entry(offset);
+    }
+
+    /**
+     *  Iterate all records not delivered, from oldest to newest
+     */
+    public Iterator<Entry> entries() {
+        return new EntryIterator(snapshot());
+    }
+
+    /**
+     *  Replay messages not delivered, decoded one by one when iterating
+     *  <p>
+     *      Like 'ReliableMessage.convert()', records that cannot be decoded
+     *      are skipped; use 'entries()' to inspect them.
+     *  </p>
+     */
+    @Override
+    public Iterator<ReliableMessage> iterator() {
+        Iterator<Entry> entries = entries();
+        return new Iterator<ReliableMessage>() {
+
+            private ReliableMessage next = null;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && entries.hasNext()) {
+                    next = decode(entries.next());
+                }
+                return next != null;
+            }
+
+            @Override
+            public ReliableMessage next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ReliableMessage msg = next;
+                next = null;
+                return msg;
+            }
+        };
+    }
+
+    private static ReliableMessage decode(Entry entry) {
+        try {
+            return entry.getMessage();
+        } catch (IllegalArgumentException e) {
+            // corrupted body
+            return null;
+        }
+    }
+
+    /**
+     *  Iterate records to the receiver within time range, in time order,
+     *  selected by the index without decoding message bodies
+     *
+     * @param receiver - receiver ID
+     * @param since    - start time in milliseconds (inclusive)
+     * @param until    - end time in milliseconds (exclusive)
+     */
+    public Iterator<Entry> entries(ID receiver, long since, long until) {
+        return new AddressIterator(index.findByReceiver(receiver, since, until));
+    }
+
+    /**
+     *  Iterate records in the group within time range, in time order
+     *
+     * @param group - group ID
+     * @param since - start time in milliseconds (inclusive)
+     * @param until - end time in milliseconds (exclusive)
+     */
+    public Iterator<Entry> groupEntries(ID group, long since, long until) {
+        return new AddressIterator(index.findByGroup(group, since, until));
+    }
+
+    private synchronized List<Segment> snapshot() {
+        checkOpen();
+        return new ArrayList<>(segments);
+    }
+
+    private Segment getSegment(int id) {
+        // segments are sorted by id
+        int low = 0, high = segments.size() - 1, mid;
+        Segment segment;
+        while (low <= high) {
+            mid = (low + high) >>> 1;
+            segment = segments.get(mid);
+            if (segment.id < id) {
+                low = mid + 1;
+            } else if (segment.id > id) {
+                high = mid - 1;
+            } else {
+                return segment;
+            }
+        }
+        return null;
+    }
+
+    static long address(int segmentId, int offset) {
+        return ((long) segmentId << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    static int segmentId(long address) {
+        return (int) (address >>> 32);
+    }
+
+    static int offset(long address) {
+        return (int) address;
+    }
+
+    /**
+     *  Record in the log
+     */
+    public static final class Entry {
+
+        private final Segment segment;
+        private final int offset;
+
+        private Entry(Segment segment, int offset) {
+            this.segment = segment;
+            this.offset = offset;
+        }
+
+        public long getAddress() {
+            return address(segment.id, offset);
+        }
+
+        public boolean isDelivered() {
+            return (segment.buffer.get(offset + FLAGS_OFFSET) & DELIVERED) != 0;
+        }
+
+        public long getTime() {
+            return segment.buffer.getLong(offset + TIME_OFFSET);
+        }
+
+        public String getReceiver() {
+            return readString(offset + RECEIVER_OFFSET);
+        }
+
+        public String getGroup() {
+            int pos = offset + RECEIVER_OFFSET;
+            pos += 2 + (segment.buffer.getShort(pos) & 0xFFFF);
+            return segment.buffer.getShort(pos) == 0 ? null : readString(pos);
+        }
+
+        private String readString(int pos) {
+            int len = segment.buffer.getShort(pos) & 0xFFFF;
+            byte[] bytes = new byte[len];
+            ByteBuffer view = segment.buffer.duplicate();
+            view.position(pos + 2);
+            view.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private ByteBuffer getBody() {
+            int pos = offset + RECEIVER_OFFSET;
+            pos += 2 + (segment.buffer.getShort(pos) & 0xFFFF);
+            pos += 2 + (segment.buffer.getShort(pos) & 0xFFFF);
+            ByteBuffer view = segment.buffer.duplicate();
+            view.limit(offset + LENGTH_SIZE + segment.buffer.getInt(offset));
+            view.position(pos);
+            return view;
+        }
+
+        /**
+         *  Decode message body
+         *
+         * @return null when body is not a valid message
+         * @throws IllegalArgumentException when body is corrupted
+         */
+        public ReliableMessage getMessage() {
+            return BinaryMessageCoder.decodeReliableMessage(getBody());
+        }
+    }
+
+    private static final class EntryIterator implements Iterator<Entry> {
+
+        private final List<Segment> segments;
+        private int index = 0;
+        private int offset = 0;
+        private Entry next = null;
+
+        EntryIterator(List<Segment> segments) {
+            this.segments = segments;
+        }
+
+        @Override
+        public boolean hasNext() {
+            Segment segment;
+            while (next == null && index < segments.size()) {
+                segment = segments.get(index);
+                if (offset >= segment.position) {
+                    ++index;
+                    offset = 0;
+                    continue;
+                }
+                Entry entry = segment.entry(offset);
+                offset += LENGTH_SIZE + segment.buffer.getInt(offset);
+                if (!entry.isDelivered()) {
+                    next = entry;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Entry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry entry = next;
+            next = null;
+            return entry;
+        }
+    }
+
+    private final class AddressIterator implements Iterator<Entry> {
+
+        private final long[] addresses;
+        private int index = 0;
+        private Entry next = null;
+
+        AddressIterator(long[] addresses) {
+            this.addresses = addresses;
+        }
+
+        @Override
+        public boolean hasNext() {
+            Entry entry;
+            while (next == null && index < addresses.length) {
+                // skip records delivered/moved after the query
+                entry = getEntry(addresses[index++]);
+                if (entry != null && !entry.isDelivered()) {
+                    next = entry;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Entry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry entry = next;
+            next = null;
+            return entry;
+        }
+    }
+
+    //
+    //  Segment file
+    //
+
+    private static final class Segment {
+
+        final int id;
+        final File file;
+        final int capacity;
+
+        private final RandomAccessFile raf;
+        final MappedByteBuffer buffer;
+
+        // end of records, written after the record
+        volatile int position;
+
+        // bytes of records not delivered
+        long liveBytes;
+
+        private Segment(int id, File file, RandomAccessFile raf, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.raf = raf;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+        }
+
+        static Segment open(File file, int id, int size) throws IOException {
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                if (raf.length() < size) {
+                    raf.setLength(size);
+                }
+                MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, raf.length());
+                Segment segment = new Segment(id, file, raf, buffer);
+                segment.recover();
+                return segment;
+            } catch (IOException | RuntimeException e) {
+                raf.close();
+                throw e;
+            }
+        }
+
+        // find the end of records
+        private void recover() {
+            int offset = 0;
+            int length;
+            long live = 0;
+            while (offset + LENGTH_SIZE <= capacity) {
+                length = buffer.getInt(offset);
+                if (length <= 0 || offset + LENGTH_SIZE + length > capacity) {
+                    break;
+                }
+                if ((buffer.get(offset + FLAGS_OFFSET) & DELIVERED) == 0) {
+                    live += LENGTH_SIZE + length;
+                }
+                offset += LENGTH_SIZE + length;
+            }
+            liveBytes = live;
+            position = offset;
+            // drop a torn record, so the next write starts at an end mark
+            if (offset + LENGTH_SIZE <= capacity) {
+                buffer.putInt(offset, 0);
+            }
+        }
+
+        /**
+         *  Write record at the end
+         *
+         * @return offset, -1 on not enough space
+         */
+        int write(byte[] receiver, byte[] group, long time, Object body) {
+            int offset = position;
+            if (offset + RECEIVER_OFFSET > capacity) {
+                return -1;
+            }
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset + FLAGS_OFFSET);
+            try {
+                view.put((byte) 0);
+                view.putLong(time);
+                view.putShort((short) receiver.length);
+                view.put(receiver);
+                view.putShort((short) group.length);
+                view.put(group);
+                if (body instanceof ByteBuffer) {
+                    // moved from another segment
+                    view.put((ByteBuffer) body);
+                } else {
+                    BinaryMessageCoder.encode((Map<?, ?>) body, view);
+                }
+            } catch (BufferOverflowException e) {
+                return -1;
+            }
+            int end = view.position();
+            int length = end - offset - LENGTH_SIZE;
+            // end mark after the record, so the stale bytes of a torn write
+            // past this record will not be taken as the next one
+            if (end + LENGTH_SIZE <= capacity) {
+                buffer.putInt(end, 0);
+            }
+            // length at last, so a torn write is not a record
+            buffer.putInt(offset, length);
+            liveBytes += LENGTH_SIZE + length;
+            position = offset + LENGTH_SIZE + length;
+            return offset;
+        }
+
+        boolean markDelivered(int offset) {
+            if (offset < 0 || offset >= position) {
+                return false;
+            }
+            byte flags = buffer.get(offset + FLAGS_OFFSET);
+            if ((flags & DELIVERED) != 0) {
+                return false;
+            }
+            buffer.put(offset + FLAGS_OFFSET, (byte) (flags | DELIVERED));
+            liveBytes -= LENGTH_SIZE + buffer.getInt(offset);
+            return true;
+        }
+
+        Entry entry(int offset) {
+            return new Entry(this, offset);
+        }
+
+        void close() throws IOException {
+            raf.close();
+        }
+
+        void delete() throws IOException {
+            if (!file.delete()) {
+                throw new IOException("failed to delete segment: " + file);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,267 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import chat.dim.dkd.basic.MessageGeneralFactory;
+import chat.dim.ext.IDHelper;
+import chat.dim.ext.SharedAccountExtensions;
+import chat.dim.ext.SharedFormatExtensions;
+import chat.dim.ext.TransportableDataHelper;
+import chat.dim.format.DataCoder;
+import chat.dim.format.JSON;
+import chat.dim.format.JSONScanner;
+import chat.dim.format.JSONWriter;
+import chat.dim.format.ObjectCoder;
+import chat.dim.format.StringCoder;
+import chat.dim.format.UTF8;
+import chat.dim.mkm.Identifier;
+import chat.dim.protocol.Address;
+import chat.dim.protocol.EntityType;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.Meta;
+import chat.dim.protocol.TransportableData;
+import chat.dim.type.ConstantString;
+
+/**
+ *  Stand-in account &amp; format extensions for tests
+ *  <p>
+ *      ID, TransportableData and the JSON/UTF8/Base64 coders are implemented
+ *      by plugins outside this module, addresses starting with "group:" are group addresses.
+ *  </p>
+ */
+public final class TestExtensions {
+
+    private TestExtensions() {
+    }
+
+    private static boolean installed = false;
+
+    public static synchronized void install() {
+        if (installed) {
+            return;
+        }
+        SharedAccountExtensions.idHelper = new IdentifierHelper();
+        SharedFormatExtensions.tedHelper = new Base64DataHelper();
+        JSON.coder = new JSONCoder();
+        UTF8.coder = new UTF8Coder();
+        chat.dim.format.Base64.coder = new Base64Coder();
+        MessageGeneralFactory.install();
+        installed = true;
+    }
+
+    static final int GROUP_NETWORK;
+    static {
+        int network = 0;
+        for (int type = 0; type < 256; ++type) {
+            if (EntityType.isGroup(type)) {
+                network = type;
+                break;
+            }
+        }
+        GROUP_NETWORK = network;
+    }
+
+    static final class SimpleAddress extends ConstantString implements Address {
+
+        private final int network;
+
+        SimpleAddress(String string) {
+            super(string);
+            this.network = string.startsWith("group:") ? GROUP_NETWORK : 0;
+        }
+
+        @Override
+        public int getNetwork() {
+            return network;
+        }
+    }
+
+    static final class IdentifierHelper implements IDHelper {
+
+        private ID.Factory factory = null;
+
+        @Override
+        public void setIDFactory(ID.Factory factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        public ID.Factory getIDFactory() {
+            return factory;
+        }
+
+        @Override
+        public ID parseID(Object identifier) {
+            if (identifier == null) {
+                return null;
+            } else if (identifier instanceof ID) {
+                return (ID) identifier;
+            }
+            String string = identifier.toString();
+            // 'name@address/terminal'
+            String terminal = null;
+            int pos = string.indexOf('/');
+            String text = string;
+            if (pos > 0) {
+                terminal = string.substring(pos + 1);
+                text = string.substring(0, pos);
+            }
+            String name = null;
+            pos = text.indexOf('@');
+            if (pos > 0) {
+                name = text.substring(0, pos);
+                text = text.substring(pos + 1);
+            }
+            return new Identifier(string, name, new SimpleAddress(text), terminal);
+        }
+
+        @Override
+        public ID createID(String name, Address address, String terminal) {
+            return Identifier.create(name, address, terminal);
+        }
+
+        @Override
+        public ID generateID(Meta meta, int network, String terminal) {
+            throw new UnsupportedOperationException("meta not supported");
+        }
+    }
+
+    static final class Base64Data extends ConstantString implements TransportableData {
+
+        private final byte[] bytes;
+
+        Base64Data(String encoded, byte[] bytes) {
+            super(encoded);
+            this.bytes = bytes;
+        }
+
+        @Override
+        public String getEncoding() {
+            return "base64";
+        }
+
+        @Override
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public Object serialize() {
+            return toString();
+        }
+    }
+
+    static final class Base64DataHelper implements TransportableDataHelper {
+
+        private TransportableData.Factory factory = null;
+
+        @Override
+        public void setTransportableDataFactory(TransportableData.Factory factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        public TransportableData.Factory getTransportableDataFactory() {
+            return factory;
+        }
+
+        @Override
+        public TransportableData parseTransportableData(Object ted) {
+            if (ted == null) {
+                return null;
+            } else if (ted instanceof TransportableData) {
+                return (TransportableData) ted;
+            }
+            String encoded = ted.toString();
+            int pos = encoded.indexOf(',');
+            try {
+                return new Base64Data(encoded, Base64.getDecoder().decode(encoded.substring(pos + 1)));
+            } catch (IllegalArgumentException e) {
+                // invalid payload
+                return null;
+            }
+        }
+    }
+
+    static final class JSONCoder implements ObjectCoder<Object> {
+
+        @Override
+        public String encode(Object object) {
+            StringBuilder sb = new StringBuilder(256);
+            JSONWriter.appendValue(object, sb);
+            return sb.toString();
+        }
+
+        @Override
+        public Object decode(String string) {
+            byte[] json = string.getBytes(StandardCharsets.UTF_8);
+            JSONScanner scanner = new JSONScanner(ByteBuffer.wrap(json));
+            Object value = scanner.readValue();
+            scanner.endDocument();
+            return value;
+        }
+    }
+
+    static final class UTF8Coder implements StringCoder {
+
+        @Override
+        public byte[] encode(String string) {
+            return string.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String decode(byte[] data) {
+            return new String(data, StandardCharsets.UTF_8);
+        }
+    }
+
+    static final class Base64Coder implements DataCoder {
+
+        @Override
+        public String encode(byte[] data) {
+            return Base64.getEncoder().encodeToString(data);
+        }
+
+        @Override
+        public byte[] decode(String string) {
+            try {
+                return Base64.getDecoder().decode(string);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.dkd;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import chat.dim.TestExtensions;
+import chat.dim.protocol.TransportableData;
+
+public class LazyTransportableDataTest {
+
+    @BeforeClass
+    public static void setUp() {
+        TestExtensions.install();
+    }
+
+    @Test
+    public void testDecodeOnDemand() {
+        LazyTransportableData ted = new LazyTransportableData("SGVsbG8=");
+        Assert.assertFalse(ted.isDecoded());
+        Assert.assertEquals("base64", ted.getEncoding());
+        Assert.assertFalse(ted.isDecoded());
+        Assert.assertArrayEquals("Hello".getBytes(), ted.getBytes());
+        Assert.assertTrue(ted.isDecoded());
+        Assert.assertEquals("SGVsbG8=", ted.serialize());
+    }
+
+    @Test
+    public void testEncodingPrefix() {
+        Assert.assertEquals("base64", new LazyTransportableData("base64,SGVsbG8=").getEncoding());
+        Assert.assertEquals("base64", new LazyTransportableData("data:image/png;base64,SGVsbG8=").getEncoding());
+        Assert.assertNull(new LazyTransportableData("data:text/plain,Hello").getEncoding());
+    }
+
+    @Test
+    public void testInvalidPayload() {
+        TransportableData ted = LazyTransportableData.parse("!!not base64!!");
+        Assert.assertNotNull(ted);
+        Assert.assertNull(ted.getBytes());
+        Assert.assertNull(ted.getBytes());
+        Assert.assertEquals("base64", ted.getEncoding());
+    }
+
+}
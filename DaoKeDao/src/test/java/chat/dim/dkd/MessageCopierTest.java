@@ -0,0 +1,121 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.dkd;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import chat.dim.TestExtensions;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.ReliableMessage;
+
+public class MessageCopierTest {
+
+    @BeforeClass
+    public static void setUp() {
+        TestExtensions.install();
+    }
+
+    private static ReliableMessage createGroupMessage() {
+        Map<String, Object> keys = new HashMap<>();
+        keys.put("alice@address1", "S0VZMQ==");
+        keys.put("bob@address2", "S0VZMg==");
+        Map<String, Object> info = new HashMap<>();
+        info.put("sender", "moki@address0");
+        info.put("receiver", "Group-1@group:address9");
+        info.put("time", 1545405083);
+        info.put("data", "SGVsbG8=");
+        info.put("keys", keys);
+        info.put("signature", "U0lH");
+        return ReliableMessage.parse(info);
+    }
+
+    @Test
+    public void testOverlay() {
+        Map<String, Object> source = new HashMap<>();
+        source.put("a", 1);
+        source.put("b", 2);
+        OverlayMap view = OverlayMap.share(source);
+        view.put("c", 3);
+        view.remove("a");
+        source.put("b", 20);
+        source.put("d", 4);
+        Assert.assertEquals(2, view.size());
+        Assert.assertEquals(2, view.get("b"));
+        Assert.assertFalse(view.containsKey("a"));
+        Assert.assertFalse(view.containsKey("d"));
+        Assert.assertFalse(source.containsKey("c"));
+        OverlayMap other = view.fork();
+        other.put("b", 200);
+        Assert.assertEquals(2, view.get("b"));
+        Assert.assertEquals(3, other.get("c"));
+    }
+
+    @Test
+    public void testCopy() {
+        ReliableMessage msg = createGroupMessage();
+        ReliableMessage copy = MessageCopier.copy(msg);
+        // changes on the original don't leak into the copy
+        msg.put("group", "Group-2@group:address8");
+        msg.put("signature", "Q0hBTkdFRA==");
+        Assert.assertNull(copy.get("group"));
+        Assert.assertEquals("U0lH", copy.get("signature"));
+        // and the other way
+        copy.put("time", 0);
+        Assert.assertEquals(1545405083, msg.get("time"));
+        Assert.assertEquals(msg.get("data"), copy.get("data"));
+    }
+
+    @Test
+    public void testSplit() {
+        ReliableMessage msg = createGroupMessage();
+        ID alice = ID.parse("alice@address1");
+        ID bob = ID.parse("bob@address2");
+        List<ReliableMessage> messages = MessageSplitter.split(msg, Arrays.asList(alice, bob));
+        msg.put("data", "Q0hBTkdFRA==");
+        Assert.assertEquals(2, messages.size());
+        ReliableMessage first = messages.get(0);
+        Assert.assertEquals(alice, first.getReceiver());
+        Assert.assertEquals("Group-1@group:address9", first.get("group"));
+        Assert.assertEquals("S0VZMQ==", first.get("key"));
+        Assert.assertNull(first.get("keys"));
+        Assert.assertEquals("SGVsbG8=", first.get("data"));
+        Assert.assertEquals("S0VZMg==", messages.get(1).get("key"));
+        Assert.assertTrue(msg.toMap().containsKey("keys"));
+    }
+
+}
@@ -0,0 +1,125 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.dkd;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import chat.dim.TestExtensions;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.ReliableMessage;
+
+public class RoutingEnvelopeTest {
+
+    @BeforeClass
+    public static void setUp() {
+        TestExtensions.install();
+    }
+
+    private static ByteBuffer wrap(String json) {
+        return ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final String MESSAGE = "{\"sender\":\"moki@address0\",\"receiver\":\"hulk@address1\","
+            + "\"time\":1545405083.5,\"group\":\"group:abc\",\"type\":\"1\","
+            + "\"meta\":{\"key\":{\"data\":\"x\"},\"list\":[1,\"}\"]},"
+            + "\"data\":\"SGVsbG8=\",\"key\":\"S0VZ\",\"signature\":\"U0lH\"}";
+
+    @Test
+    public void testRoutingFields() {
+        ByteBuffer buffer = wrap("  " + MESSAGE + "\n");
+        buffer.position(2);
+        RoutingEnvelope env = RoutingEnvelope.parse(buffer);
+        Assert.assertNotNull(env);
+        // buffer untouched
+        Assert.assertEquals(2, buffer.position());
+
+        Assert.assertEquals(ID.parse("moki@address0"), env.getSender());
+        Assert.assertEquals(ID.parse("hulk@address1"), env.getReceiver());
+        Assert.assertEquals(ID.parse("group:abc"), env.getGroup());
+        Assert.assertEquals("1", env.getType());
+        Assert.assertEquals(1545405083500L, env.getTimeMillis());
+        // body fields are not decoded
+        Assert.assertEquals(5, env.toMap().size());
+        Assert.assertFalse(env.containsKey("data"));
+        Assert.assertFalse(env.containsKey("meta"));
+
+        Assert.assertArrayEquals("Hello".getBytes(), env.getData().getBytes());
+        Assert.assertArrayEquals("SIG".getBytes(), env.getSignature().getBytes());
+
+        // routing fields changed before forwarding
+        env.setGroup(null);
+        ReliableMessage msg = env.getReliableMessage();
+        Assert.assertNotNull(msg);
+        Assert.assertEquals("S0VZ", msg.get("key"));
+        Assert.assertTrue(msg.containsKey("meta"));
+        Assert.assertNull(msg.getGroup());
+    }
+
+    @Test
+    public void testPersonalMessage() {
+        RoutingEnvelope env = RoutingEnvelope.parse(wrap("{\"sender\":\"moki@address0\",\"data\":\"SGk=\"}"));
+        Assert.assertNotNull(env);
+        Assert.assertEquals(ID.ANYONE, env.getReceiver());
+        Assert.assertNull(env.getGroup());
+        Assert.assertNull(env.getSignature());
+        Assert.assertArrayEquals("Hi".getBytes(), env.getData().getBytes());
+    }
+
+    @Test
+    public void testMalformed() {
+        String[] headers = {
+                // missing sender
+                "{\"receiver\":\"hulk@address1\",\"data\":\"SGk=\"}",
+                // missing commas
+                "{\"sender\":\"moki@address0\" \"receiver\":\"hulk@address1\"}",
+                "{\"sender\":\"moki@address0\",\"data\":\"SGk=\" \"signature\":\"U0lH\"}",
+                "{\"sender\":\"moki@address0\",\"meta\":[1 2]}",
+                // trailing garbage
+                "{\"sender\":\"moki@address0\"} {\"sender\":\"hulk@address1\"}",
+                "{\"sender\":\"moki@address0\"}}",
+                // bad escapes
+                "{\"sender\":\"moki\\u+123\"}",
+                // truncated
+                "{\"sender\":\"moki@address0\",\"data\":\"SGk=",
+                "{\"sender\":\"moki@address0\",",
+                "",
+        };
+        for (String json : headers) {
+            Assert.assertNull(json, RoutingEnvelope.parse(wrap(json)));
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.dkd;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.LongSupplier;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SerialNumberGeneratorTest {
+
+    private static final int THREADS = 16;
+    private static final int COUNT = 50000;
+
+    /**
+     *  Generate SNs on all threads at once
+     *
+     * @return all SNs, one array for each thread
+     */
+    private static List<long[]> generate(LongSupplier supplier) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<long[]> results = new ArrayList<>(THREADS);
+        List<Thread> threads = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; ++i) {
+            long[] array = new long[COUNT];
+            results.add(array);
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < COUNT; ++j) {
+                    array[j] = supplier.getAsLong();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return results;
+    }
+
+    private static void checkUnique(List<long[]> results) {
+        Set<Long> all = new HashSet<>(THREADS * COUNT * 4 / 3 + 1);
+        for (long[] array : results) {
+            long prev = 0;
+            for (long sn : array) {
+                Assert.assertTrue("SN must be positive: " + sn, sn > 0);
+                Assert.assertTrue("SN must increase in one thread", sn > prev);
+                Assert.assertTrue("duplicated SN: " + sn, all.add(sn));
+                prev = sn;
+            }
+        }
+        Assert.assertEquals(THREADS * COUNT, all.size());
+    }
+
+    @Test
+    public void testUniqueWithClock() throws InterruptedException {
+        SerialNumberGenerator generator = new SerialNumberGenerator();
+        checkUnique(generate(() -> generator.generateSerialNumber("1", null)));
+    }
+
+    @Test
+    public void testUniqueInSameMillisecond() throws InterruptedException {
+        // all threads in one millisecond, sequence overflows into the next ones
+        SerialNumberGenerator generator = new SerialNumberGenerator();
+        long now = System.currentTimeMillis();
+        checkUnique(generate(() -> generator.generate(now)));
+    }
+
+    @Test
+    public void testSharedStripe() throws InterruptedException {
+        // threads with the same stripe must not collide
+        SerialNumberGenerator generator = new SerialNumberGenerator();
+        long now = System.currentTimeMillis();
+        List<long[]> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        long stripe = -1;
+        while (threads.size() < 4) {
+            long[] array = new long[COUNT];
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < COUNT; ++j) {
+                    array[j] = generator.generate(now);
+                }
+            });
+            // thread ID is assigned on creation
+            long id = thread.getId() & SerialNumberGenerator.STRIPE_MASK;
+            if (stripe < 0) {
+                stripe = id;
+            } else if (id != stripe) {
+                continue;
+            }
+            results.add(array);
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Set<Long> all = new HashSet<>();
+        for (long[] array : results) {
+            for (long sn : array) {
+                Assert.assertEquals(stripe, sn & SerialNumberGenerator.STRIPE_MASK);
+                Assert.assertTrue("duplicated SN: " + sn, all.add(sn));
+            }
+        }
+        Assert.assertEquals(4 * COUNT, all.size());
+    }
+
+    @Test
+    public void testTime() {
+        SerialNumberGenerator generator = new SerialNumberGenerator();
+        long now = System.currentTimeMillis();
+        long sn = generator.generate(now);
+        Assert.assertEquals(now, SerialNumberGenerator.getTime(sn));
+    }
+
+}
@@ -0,0 +1,105 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.dkd.basic;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import chat.dim.TestExtensions;
+import chat.dim.protocol.Envelope;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.InstantMessage;
+
+public class MessageGeneralFactoryTest {
+
+    @BeforeClass
+    public static void setUp() {
+        TestExtensions.install();
+    }
+
+    @Test
+    public void testSerialNumbersAcrossHelpers() {
+        // e.g.: helpers for two contexts, used on the same thread in the same millisecond
+        MessageGeneralFactory first = MessageGeneralFactory.create();
+        MessageGeneralFactory second = MessageGeneralFactory.create();
+        Date now = new Date();
+        Set<Long> numbers = new HashSet<>();
+        for (int i = 0; i < 1000; ++i) {
+            Assert.assertTrue(numbers.add(first.generateSerialNumber("1", now)));
+            Assert.assertTrue(numbers.add(second.generateSerialNumber("1", now)));
+        }
+    }
+
+    @Test
+    public void testParse() {
+        ID sender = ID.parse("moki@address0");
+        ID receiver = ID.parse("hulk@address1");
+        Envelope env = Envelope.create(sender, receiver, new Date());
+        BaseContent content = new BaseContent("1");
+        content.put("text", "Hey guy!");
+        InstantMessage msg = InstantMessage.create(env, content);
+        Assert.assertTrue(msg instanceof PlainMessage);
+        String json = "{\"sender\":\"moki@address0\",\"receiver\":\"hulk@address1\",\"time\":1545405083," +
+                "\"content\":{\"type\":\"1\",\"sn\":1031427587978559489,\"text\":\"Hey guy!\"}}";
+        InstantMessage parsed = InstantMessage.parse(json);
+        Assert.assertNotNull(parsed);
+        Assert.assertEquals(sender, parsed.getSender());
+        Assert.assertEquals(1031427587978559489L, parsed.getContent().getSerialNumber());
+        Assert.assertEquals("Hey guy!", parsed.getContent().get("text"));
+        Assert.assertNull(InstantMessage.parse("{not json"));
+    }
+
+    @Test
+    public void testSharedEnvelope() {
+        ID sender = ID.parse("moki@address0");
+        ID receiver = ID.parse("hulk@address1");
+        Envelope env = Envelope.create(sender, receiver, new Date());
+        BaseContent first = new BaseContent("1");
+        first.put("text", "first");
+        BaseContent second = new BaseContent("1");
+        second.put("text", "second");
+        InstantMessage m1 = InstantMessage.create(env, first);
+        InstantMessage m2 = InstantMessage.create(env, second);
+        Assert.assertNotSame(m1.toMap(), m2.toMap());
+        Assert.assertEquals("first", ((Map<?, ?>) m1.get("content")).get("text"));
+        Assert.assertEquals("second", ((Map<?, ?>) m2.get("content")).get("text"));
+        Assert.assertNull(env.get("content"));
+        Assert.assertEquals(sender, m1.getSender());
+        Assert.assertEquals(receiver, m2.getReceiver());
+    }
+
+}
@@ -0,0 +1,161 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.ext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchParserTest {
+
+    private ExecutorService pool;
+    private final AtomicInteger submitted = new AtomicInteger();
+    private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+    // records the threads running the parser
+    private final Function<Object, String> parser = item -> {
+        threads.add(Thread.currentThread());
+        int value = (Integer) item;
+        if (value % 7 == 0) {
+            throw new IllegalArgumentException("bad item: " + value);
+        } else if (value % 5 == 0) {
+            return null;
+        }
+        return "item-" + value;
+    };
+
+    @Before
+    public void setUp() {
+        pool = Executors.newFixedThreadPool(3);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private Executor counting(Executor executor) {
+        return command -> {
+            submitted.incrementAndGet();
+            executor.execute(command);
+        };
+    }
+
+    private static List<Integer> createItems(int count) {
+        List<Integer> items = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            items.add(i);
+        }
+        return items;
+    }
+
+    private static void checkResults(List<BatchParser.Result<String>> results, int count) {
+        Assert.assertEquals(count, results.size());
+        BatchParser.Result<String> result;
+        for (int i = 0; i < count; ++i) {
+            result = results.get(i);
+            Assert.assertEquals(i, result.index);
+            if (i % 7 == 0) {
+                Assert.assertTrue(result.isFailed());
+                Assert.assertEquals("bad item: " + i, result.getError().getMessage());
+                Assert.assertNull(result.getValue());
+            } else if (i % 5 == 0) {
+                Assert.assertFalse(result.isFailed());
+                Assert.assertNull(result.getValue());
+            } else {
+                Assert.assertFalse(result.isFailed());
+                Assert.assertNull(result.getError());
+                Assert.assertEquals("item-" + i, result.getValue());
+            }
+        }
+    }
+
+    @Test
+    public void testSmallBatch() {
+        BatchParser batch = new BatchParser(counting(pool), 4, 100);
+        List<BatchParser.Result<String>> results = batch.parse(createItems(99), parser);
+        checkResults(results, 99);
+        // parsed on the caller's thread only
+        Assert.assertEquals(0, submitted.get());
+        Assert.assertEquals(1, threads.size());
+        Assert.assertTrue(threads.contains(Thread.currentThread()));
+
+        Assert.assertTrue(batch.parse(new ArrayList<>(), parser).isEmpty());
+    }
+
+    @Test
+    public void testChunks() {
+        BatchParser batch = new BatchParser(counting(pool), 4, 100);
+        // 4 chunks of 250, the caller takes the first one
+        List<BatchParser.Result<String>> results = batch.parse(createItems(1000), parser);
+        checkResults(results, 1000);
+        Assert.assertEquals(3, submitted.get());
+        Assert.assertTrue(threads.contains(Thread.currentThread()));
+        Assert.assertTrue(threads.size() > 1);
+
+        // chunks limited by the threshold: 250 / 100 + 1 = 3
+        submitted.set(0);
+        checkResults(batch.parse(createItems(250), parser), 250);
+        Assert.assertEquals(2, submitted.get());
+
+        // uneven last chunk
+        submitted.set(0);
+        checkResults(batch.parse(createItems(1001), parser), 1001);
+        Assert.assertEquals(3, submitted.get());
+    }
+
+    @Test
+    public void testRejected() {
+        Executor rejecting = command -> {
+            submitted.incrementAndGet();
+            throw new RejectedExecutionException("busy");
+        };
+        BatchParser batch = new BatchParser(rejecting, 4, 10);
+        checkResults(batch.parse(createItems(100), parser), 100);
+        Assert.assertEquals(3, submitted.get());
+        // all chunks fall back to the caller's thread
+        Assert.assertEquals(1, threads.size());
+        Assert.assertTrue(threads.contains(Thread.currentThread()));
+    }
+
+}
@@ -0,0 +1,181 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.ext;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import chat.dim.TestExtensions;
+import chat.dim.protocol.Address;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.Meta;
+
+public class CachingIDHelperTest {
+
+    @BeforeClass
+    public static void setUp() {
+        TestExtensions.install();
+    }
+
+    /**
+     *  Counts calls to the plugin helper, empty string is invalid
+     */
+    static final class CountingHelper implements IDHelper {
+
+        final IDHelper helper;
+        final AtomicInteger parsed = new AtomicInteger();
+
+        CountingHelper(IDHelper helper) {
+            this.helper = helper;
+        }
+
+        @Override
+        public void setIDFactory(ID.Factory factory) {
+            helper.setIDFactory(factory);
+        }
+
+        @Override
+        public ID.Factory getIDFactory() {
+            return helper.getIDFactory();
+        }
+
+        @Override
+        public ID parseID(Object identifier) {
+            parsed.incrementAndGet();
+            if (identifier instanceof String && ((String) identifier).isEmpty()) {
+                return null;
+            }
+            return helper.parseID(identifier);
+        }
+
+        @Override
+        public ID createID(String name, Address address, String terminal) {
+            return helper.createID(name, address, terminal);
+        }
+
+        @Override
+        public ID generateID(Meta meta, int network, String terminal) {
+            return helper.generateID(meta, network, terminal);
+        }
+    }
+
+    @Test
+    public void testHits() {
+        CountingHelper plugin = new CountingHelper(SharedAccountExtensions.idHelper);
+        CachingIDHelper cache = new CachingIDHelper(plugin, 16);
+        ID first = cache.parseID("moki@address0");
+        ID second = cache.parseID(new StringBuilder("moki@address0"));
+        Assert.assertNotNull(first);
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, plugin.parsed.get());
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(1, cache.size());
+
+        // ID objects pass through
+        Assert.assertSame(first, cache.parseID(first));
+        Assert.assertNull(cache.parseID(null));
+        Assert.assertEquals(1, plugin.parsed.get());
+
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(first, cache.parseID("moki@address0"));
+        Assert.assertEquals(2, plugin.parsed.get());
+    }
+
+    @Test
+    public void testEvictions() {
+        CountingHelper plugin = new CountingHelper(SharedAccountExtensions.idHelper);
+        CachingIDHelper cache = new CachingIDHelper(plugin, 4);
+        for (int i = 0; i < 4; ++i) {
+            cache.parseID("user" + i + "@address");
+        }
+        Assert.assertEquals(4, cache.size());
+        Assert.assertEquals(0, cache.getEvictionCount());
+        // referenced entries get a second chance
+        ID hot = cache.parseID("user0@address");
+        cache.parseID("user4@address");
+        Assert.assertEquals(4, cache.size());
+        Assert.assertEquals(1, cache.getEvictionCount());
+        Assert.assertSame(hot, cache.parseID("user0@address"));
+        int parsed = plugin.parsed.get();
+        // the oldest one not referenced was evicted
+        cache.parseID("user1@address");
+        Assert.assertEquals(parsed + 1, plugin.parsed.get());
+        Assert.assertEquals(4, cache.size());
+        Assert.assertEquals(2, cache.getEvictionCount());
+
+        for (int i = 0; i < 100; ++i) {
+            cache.parseID("user" + i + "@address");
+        }
+        Assert.assertEquals(4, cache.size());
+    }
+
+    @Test
+    public void testFallback() {
+        CountingHelper plugin = new CountingHelper(SharedAccountExtensions.idHelper);
+        CachingIDHelper cache = new CachingIDHelper(plugin, 4);
+        Assert.assertSame(plugin, cache.getHelper());
+        Assert.assertSame(plugin.getIDFactory(), cache.getIDFactory());
+        // invalid identifiers are not cached
+        Assert.assertNull(cache.parseID(""));
+        Assert.assertNull(cache.parseID(""));
+        Assert.assertEquals(2, plugin.parsed.get());
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInstall() {
+        IDHelper original = SharedAccountExtensions.idHelper;
+        try {
+            CachingIDHelper cache = CachingIDHelper.install(8);
+            Assert.assertSame(cache, SharedAccountExtensions.idHelper);
+            Assert.assertSame(original, cache.getHelper());
+            Assert.assertSame(ID.parse("moki@address0"), ID.parse("moki@address0"));
+            Assert.assertEquals(1, cache.getHitCount());
+
+            // installing again replaces the cache, not wrap it
+            CachingIDHelper other = CachingIDHelper.install(16);
+            Assert.assertSame(original, other.getHelper());
+            Assert.assertEquals(0, other.size());
+
+            Assert.assertSame(original, CachingIDHelper.uninstall());
+            Assert.assertSame(original, SharedAccountExtensions.idHelper);
+            Assert.assertNull(CachingIDHelper.uninstall());
+        } finally {
+            SharedAccountExtensions.idHelper = original;
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.ext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import chat.dim.TestExtensions;
+import chat.dim.protocol.ReliableMessage;
+
+public class CachingReliableMessageHelperTest {
+
+    @BeforeClass
+    public static void setUp() {
+        TestExtensions.install();
+    }
+
+    private static Map<String, Object> message(String receiver, String data) {
+        Map<String, Object> info = new HashMap<>();
+        info.put("sender", "moki@address0");
+        info.put("receiver", receiver);
+        info.put("time", 1545405083);
+        info.put("data", data);
+        info.put("key", "S0VZ");
+        info.put("signature", "U0lH");
+        return info;
+    }
+
+    @Test
+    public void testDuplicates() {
+        CachingReliableMessageHelper cache = new CachingReliableMessageHelper(
+                SharedMessageExtensions.getReliableHelper(), 16, 60 * 1000);
+        ReliableMessage first = cache.parseReliableMessage(message("hulk@address1", "SGVsbG8="));
+        ReliableMessage second = cache.parseReliableMessage(message("hulk@address1", "SGVsbG8="));
+        Assert.assertSame(first, second);
+        Assert.assertTrue(cache.isSeen(message("hulk@address1", "SGVsbG8=")));
+        Assert.assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testTamperedCopy() {
+        CachingReliableMessageHelper cache = new CachingReliableMessageHelper(
+                SharedMessageExtensions.getReliableHelper(), 16, 60 * 1000);
+        // real signature with garbage data arrives first
+        ReliableMessage fake = cache.parseReliableMessage(message("hulk@address1", "R0FSQkFHRQ=="));
+        Assert.assertFalse(cache.isSeen(message("hulk@address1", "SGVsbG8=")));
+        ReliableMessage real = cache.parseReliableMessage(message("hulk@address1", "SGVsbG8="));
+        Assert.assertNotSame(fake, real);
+        Assert.assertEquals("SGVsbG8=", real.get("data"));
+        // same body for another member
+        ReliableMessage other = cache.parseReliableMessage(message("alice@address2", "SGVsbG8="));
+        Assert.assertNotSame(real, other);
+        Assert.assertEquals("alice@address2", other.getReceiver().toString());
+    }
+
+    @Test
+    public void testGroupKeys() {
+        CachingReliableMessageHelper cache = new CachingReliableMessageHelper(
+                SharedMessageExtensions.getReliableHelper(), 16, 60 * 1000);
+        Map<String, Object> keys = new HashMap<>();
+        keys.put("alice@address2", "S0VZMQ==");
+        keys.put("bob@address3", "S0VZMg==");
+        Map<String, Object> info = message("Group-1@group:address9", "SGVsbG8=");
+        info.remove("key");
+        info.put("keys", keys);
+        ReliableMessage first = cache.parseReliableMessage(info);
+        // same entries in another map
+        Map<String, Object> copy = new HashMap<>(info);
+        copy.put("keys", new TreeMap<>(keys));
+        Assert.assertSame(first, cache.parseReliableMessage(copy));
+        // one key changed
+        Map<String, Object> changed = new HashMap<>(keys);
+        changed.put("bob@address3", "S0VZMw==");
+        copy.put("keys", changed);
+        Assert.assertFalse(cache.isSeen(copy));
+        Assert.assertNotSame(first, cache.parseReliableMessage(copy));
+        // the genuine message is still cached
+        Assert.assertTrue(cache.isSeen(info));
+    }
+
+}
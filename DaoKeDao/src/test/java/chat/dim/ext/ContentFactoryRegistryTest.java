@@ -0,0 +1,136 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.ext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import chat.dim.protocol.Content;
+
+public class ContentFactoryRegistryTest {
+
+    private static Content.Factory createFactory() {
+        return content -> null;
+    }
+
+    @Test
+    public void testNumericTypes() {
+        ContentFactoryRegistry registry = new ContentFactoryRegistry();
+        Content.Factory text = createFactory();
+        Content.Factory command = createFactory();
+        registry.setContentFactory("1", text);
+        registry.setContentFactory("0x88", command);
+        // decimal & hexadecimal strings share the same slot
+        Assert.assertSame(text, registry.getContentFactory("1"));
+        Assert.assertSame(text, registry.getContentFactory("0x01"));
+        Assert.assertSame(command, registry.getContentFactory("136"));
+        Assert.assertSame(command, registry.getContentFactory("0x88"));
+        Assert.assertNull(registry.getContentFactory("2"));
+        Assert.assertEquals(136, ContentFactoryRegistry.indexOf("0x88"));
+
+        registry.setContentFactory("0x1", null);
+        Assert.assertNull(registry.getContentFactory("1"));
+    }
+
+    @Test
+    public void testCustomTypes() {
+        ContentFactoryRegistry registry = new ContentFactoryRegistry();
+        Content.Factory custom = createFactory();
+        Content.Factory large = createFactory();
+        registry.setContentFactory("custom", custom);
+        registry.setContentFactory("256", large);
+        Assert.assertEquals(-1, ContentFactoryRegistry.indexOf("custom"));
+        Assert.assertEquals(-1, ContentFactoryRegistry.indexOf("256"));
+        Assert.assertSame(custom, registry.getContentFactory("custom"));
+        Assert.assertSame(large, registry.getContentFactory("256"));
+        // out of range numbers are not normalized
+        Assert.assertNull(registry.getContentFactory("0x100"));
+        Assert.assertNull(registry.getContentFactory("unknown"));
+        Assert.assertNull(registry.getContentFactory(null));
+
+        registry.setContentFactory("custom", null);
+        Assert.assertNull(registry.getContentFactory("custom"));
+    }
+
+    @Test
+    public void testConcurrentSet() throws InterruptedException {
+        ContentFactoryRegistry registry = new ContentFactoryRegistry();
+        int count = 8;
+        Content.Factory[] factories = new Content.Factory[count];
+        for (int i = 0; i < count; ++i) {
+            factories[i] = createFactory();
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger errors = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            int id = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < 10000; ++j) {
+                        // own slots
+                        registry.setContentFactory(Integer.toString(id), factories[id]);
+                        registry.setContentFactory("custom-" + id, factories[id]);
+                        // shared slots, any writer may win
+                        registry.setContentFactory("0xFF", factories[id]);
+                        registry.setContentFactory("shared", factories[id]);
+                        if (registry.getContentFactory("0x0" + id) != factories[id]
+                                || registry.getContentFactory("custom-" + id) != factories[id]
+                                || registry.getContentFactory("255") == null
+                                || registry.getContentFactory("shared") == null) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    errors.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(0, errors.get());
+        for (int i = 0; i < count; ++i) {
+            Assert.assertSame(factories[i], registry.getContentFactory(Integer.toString(i)));
+            Assert.assertSame(factories[i], registry.getContentFactory("custom-" + i));
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.ext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ContentTypeCodesTest {
+
+    @Test
+    public void testNumericCodes() {
+        for (int code = 0; code <= ContentTypeCodes.MAX_NUMERIC; ++code) {
+            String decimal = Integer.toString(code);
+            Assert.assertEquals(code, ContentTypeCodes.valueOf(decimal));
+            Assert.assertEquals(code, ContentTypeCodes.valueOf(String.format("0x%02X", code)));
+            Assert.assertEquals(code, ContentTypeCodes.valueOf("0x" + Integer.toHexString(code)));
+            Assert.assertEquals(decimal, ContentTypeCodes.getType(code));
+            // registering a numeric type does not take a custom code
+            Assert.assertEquals(code, ContentTypeCodes.register(decimal));
+        }
+        Assert.assertEquals("136", ContentTypeCodes.getType(ContentTypeCodes.valueOf("0x88")));
+        // not numeric types
+        String[] types = {"", "256", "-1", "+1", "01", "1000", "0x", "0x100", "0xG1", "1a", " 1"};
+        for (String type : types) {
+            Assert.assertEquals(type, -1, ContentTypeCodes.getNumericCode(type));
+            Assert.assertEquals(type, ContentTypeCodes.UNKNOWN, ContentTypeCodes.valueOf(type));
+        }
+        Assert.assertEquals(ContentTypeCodes.UNKNOWN, ContentTypeCodes.valueOf(null));
+        Assert.assertNull(ContentTypeCodes.getType(ContentTypeCodes.UNKNOWN));
+    }
+
+    @Test
+    public void testCustomCodes() {
+        String type = "custom-" + System.nanoTime();
+        Assert.assertEquals(ContentTypeCodes.UNKNOWN, ContentTypeCodes.valueOf(type));
+        int code = ContentTypeCodes.register(type);
+        Assert.assertTrue(code > ContentTypeCodes.MAX_NUMERIC);
+        Assert.assertEquals(code, ContentTypeCodes.valueOf(type));
+        Assert.assertEquals(type, ContentTypeCodes.getType(code));
+        Assert.assertEquals(code, ContentTypeCodes.register(type));
+
+        int next = ContentTypeCodes.register(type + "-next");
+        Assert.assertEquals(code + 1, next);
+        Assert.assertNull(ContentTypeCodes.getType(next + 1));
+        Assert.assertNull(ContentTypeCodes.getType(ContentTypeCodes.MAX_NUMERIC + 1 + ContentTypeCodes.MAX_CUSTOM));
+    }
+
+    @Test
+    public void testFirstCustomCode() {
+        // codes are given in registering order, the first one is 0x100
+        int code = ContentTypeCodes.register("first-" + System.nanoTime());
+        String first = ContentTypeCodes.getType(0x100);
+        Assert.assertNotNull(first);
+        Assert.assertEquals(0x100, ContentTypeCodes.valueOf(first));
+        for (int i = 0x100; i <= code; ++i) {
+            Assert.assertNotNull(ContentTypeCodes.getType(i));
+        }
+    }
+
+    @Test
+    public void testConcurrentRegister() throws InterruptedException {
+        String type = "concurrent-" + System.nanoTime();
+        int count = 8;
+        Set<Integer> codes = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < 100; ++j) {
+                    codes.add(ContentTypeCodes.register(type));
+                    codes.add(ContentTypeCodes.valueOf(type));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // one code for the same name, never UNKNOWN once registered
+        Assert.assertEquals(1, codes.size());
+        int code = ContentTypeCodes.valueOf(type);
+        Assert.assertTrue(codes.contains(code));
+        Assert.assertEquals(type, ContentTypeCodes.getType(code));
+    }
+
+}
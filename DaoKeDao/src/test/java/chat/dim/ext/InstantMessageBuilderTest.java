@@ -0,0 +1,112 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.ext;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import chat.dim.format.JSONScanner;
+
+public class InstantMessageBuilderTest {
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> decode(InstantMessageBuilder builder) {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        builder.encodeMessage(buffer);
+        buffer.flip();
+        return (Map<String, Object>) new JSONScanner(buffer).readValue();
+    }
+
+    @Test
+    public void testBuild() {
+        Map<String, Object> content = new HashMap<>();
+        content.put("type", "1");
+        content.put("text", "Hello");
+        InstantMessageBuilder builder = new InstantMessageBuilder();
+        builder.setSender("moki@address0").setReceiver("hulk@address1")
+                .setTime(1545405083500L).setType("1").setContent(content);
+        Map<String, Object> info = decode(builder);
+        Assert.assertEquals("moki@address0", info.get("sender"));
+        Assert.assertEquals("hulk@address1", info.get("receiver"));
+        Assert.assertEquals(1545405083.5, info.get("time"));
+        Assert.assertEquals("1", info.get("type"));
+        Assert.assertEquals(content, info.get("content"));
+        Assert.assertFalse(info.containsKey("group"));
+    }
+
+    @Test
+    public void testReuse() throws InterruptedException {
+        InstantMessageBuilder builder = InstantMessageBuilder.getInstance();
+        Assert.assertSame(builder, InstantMessageBuilder.getInstance());
+
+        Map<String, Object> content = new HashMap<>();
+        content.put("type", "0x88");
+        content.put("command", "invite");
+        builder.reset().setSender("moki@address0").setReceiver("hulk@address1")
+                .setGroup("group:abc").setType("0x88").setTime(1545405083000L)
+                .setContent(content);
+        Map<String, Object> first = decode(builder);
+        Assert.assertEquals("group:abc", first.get("group"));
+
+        // next message from the same thread starts clean
+        builder = InstantMessageBuilder.getInstance();
+        builder.reset().setSender("hulk@address1");
+        Assert.assertEquals("{\"sender\":\"hulk@address1\",\"receiver\":\"anyone@anywhere\"",
+                builder.buildEnvelope().toString().replaceFirst(",\"time\":.*", ""));
+        try {
+            builder.buildMessage();
+            Assert.fail("content should be cleared");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        builder.setContent("{\"type\":\"1\",\"text\":\"Hi\"}");
+        Map<String, Object> second = decode(builder);
+        Assert.assertEquals("hulk@address1", second.get("sender"));
+        Assert.assertEquals("anyone@anywhere", second.get("receiver"));
+        Assert.assertFalse(second.containsKey("group"));
+        Assert.assertFalse(second.containsKey("type"));
+        Assert.assertEquals("Hi", ((Map<?, ?>) second.get("content")).get("text"));
+
+        // other threads have their own builders
+        AtomicReference<InstantMessageBuilder> other = new AtomicReference<>();
+        Thread thread = new Thread(() -> other.set(InstantMessageBuilder.getInstance()));
+        thread.start();
+        thread.join();
+        Assert.assertNotNull(other.get());
+        Assert.assertNotSame(builder, other.get());
+    }
+
+}
@@ -0,0 +1,88 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.ext;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import chat.dim.TestExtensions;
+import chat.dim.dkd.basic.BaseContent;
+import chat.dim.dkd.basic.MessageGeneralFactory;
+import chat.dim.protocol.Content;
+import chat.dim.protocol.InstantMessage;
+
+public class MessageExtensionContextTest {
+
+    static final String JSON = "{\"sender\":\"moki@address0\",\"receiver\":\"hulk@address1\",\"time\":1545405083," +
+            "\"content\":{\"type\":\"1\",\"sn\":1,\"text\":\"Hey guy!\"}}";
+
+    static class TenantContent extends BaseContent {
+        TenantContent(Map<String, Object> content) {
+            super(content);
+        }
+    }
+
+    @BeforeClass
+    public static void setUp() {
+        TestExtensions.install();
+    }
+
+    @Test
+    public void testIsolation() throws Exception {
+        MessageExtensionContext tenant = new MessageExtensionContext();
+        MessageGeneralFactory helper = MessageGeneralFactory.install(tenant);
+        helper.setContentFactory("1", TenantContent::new);
+        Assert.assertNotSame(helper, SharedMessageExtensions.getContentHelper());
+
+        InstantMessage tenantMsg = tenant.parseInstantMessage(JSON);
+        InstantMessage defaultMsg = InstantMessage.parse(JSON);
+        Assert.assertNotNull(tenantMsg);
+        Assert.assertNotNull(defaultMsg);
+
+        // lazy content is parsed by the message's own context, on any thread
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Content tenantContent = pool.submit(tenantMsg::getContent).get();
+            Content defaultContent = pool.submit(defaultMsg::getContent).get();
+            Assert.assertTrue(tenantContent instanceof TenantContent);
+            Assert.assertFalse(defaultContent instanceof TenantContent);
+        } finally {
+            pool.shutdown();
+        }
+        Assert.assertEquals("moki@address0", tenantMsg.getSender().toString());
+    }
+
+}
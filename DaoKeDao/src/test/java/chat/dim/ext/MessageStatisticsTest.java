@@ -0,0 +1,84 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.ext;
+
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MessageStatisticsTest {
+
+    @Test
+    public void testContentTypes() {
+        MessageStatistics stat = new MessageStatistics();
+        stat.onParsed(MessageMonitor.Kind.CONTENT, "1", 100);
+        stat.onParsed(MessageMonitor.Kind.CONTENT, "0x01", 100);
+        stat.onParsed(MessageMonitor.Kind.CONTENT, "136", 100);
+        ContentTypeCodes.register("test-registered");
+        stat.onParsed(MessageMonitor.Kind.CONTENT, "test-registered", 100);
+        // random types from the network
+        for (int i = 0; i < 10000; ++i) {
+            stat.onParsed(MessageMonitor.Kind.CONTENT, "random-" + i, 100);
+        }
+        Map<String, Long> counts = stat.getContentTypeCounts();
+        Assert.assertEquals(4, counts.size());
+        Assert.assertEquals(Long.valueOf(2), counts.get("1"));
+        Assert.assertEquals(Long.valueOf(1), counts.get("136"));
+        Assert.assertEquals(Long.valueOf(1), counts.get("test-registered"));
+        Assert.assertEquals(Long.valueOf(10000), counts.get(MessageStatistics.OTHER_TYPES));
+        Assert.assertEquals(10004, stat.getParsedCount(MessageMonitor.Kind.CONTENT));
+    }
+
+    @Test
+    public void testFailures() {
+        MessageStatistics stat = new MessageStatistics();
+        stat.onParsed(MessageMonitor.Kind.CONTENT, "1", 100);
+        stat.onFailed(MessageMonitor.Kind.CONTENT, "1", 100, null);
+        stat.onFailed(MessageMonitor.Kind.CONTENT, "0x01", 100, new IllegalArgumentException());
+        stat.onFailed(MessageMonitor.Kind.CONTENT, "136", 100, null);
+        stat.onFailed(MessageMonitor.Kind.CONTENT, "random-failure", 100, null);
+        stat.onFailed(MessageMonitor.Kind.ENVELOPE, null, 100, null);
+        Map<String, Long> failures = stat.getContentTypeFailures();
+        Assert.assertEquals(3, failures.size());
+        Assert.assertEquals(Long.valueOf(2), failures.get("1"));
+        Assert.assertEquals(Long.valueOf(1), failures.get("136"));
+        Assert.assertEquals(Long.valueOf(1), failures.get(MessageStatistics.OTHER_TYPES));
+        // failed types are not counted as parsed
+        Map<String, Long> counts = stat.getContentTypeCounts();
+        Assert.assertEquals(1, counts.size());
+        Assert.assertEquals(Long.valueOf(1), counts.get("1"));
+        Assert.assertEquals(3, stat.getNullCount(MessageMonitor.Kind.CONTENT));
+        Assert.assertEquals(1, stat.getErrorCount(MessageMonitor.Kind.CONTENT));
+        Assert.assertEquals(1, stat.getNullCount(MessageMonitor.Kind.ENVELOPE));
+    }
+
+}
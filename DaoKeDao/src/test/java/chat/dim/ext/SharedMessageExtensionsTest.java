@@ -0,0 +1,85 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.ext;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import chat.dim.protocol.Content;
+
+@SuppressWarnings("deprecation")
+public class SharedMessageExtensionsTest {
+
+    @Test
+    public void testLegacyFields() {
+        chat.dim.TestExtensions.install();
+        MessageExtensions original = SharedMessageExtensions.get();
+        ContentHelper defaultHelper = original.getContentHelper();
+        Assert.assertSame(defaultHelper, SharedMessageExtensions.contentHelper);
+        Assert.assertSame(original.getHelper(), SharedMessageExtensions.helper);
+
+        ContentHelper legacy = new ContentHelper() {
+            @Override
+            public void setContentFactory(String type, Content.Factory factory) {
+            }
+            @Override
+            public Content.Factory getContentFactory(String type) {
+                return null;
+            }
+            @Override
+            public Content parseContent(Object content) {
+                return null;
+            }
+        };
+        try {
+            // old code assigns the field directly,
+            // reading does not check the fields
+            SharedMessageExtensions.contentHelper = legacy;
+            Assert.assertSame(defaultHelper, SharedMessageExtensions.getContentHelper());
+
+            // taken into the snapshot by the next change
+            SharedMessageExtensions.setMonitor(original.getMonitor());
+            Assert.assertSame(legacy, SharedMessageExtensions.getContentHelper());
+            Assert.assertNull(Content.parse("{\"type\":1}"));
+            // other helpers are untouched
+            Assert.assertSame(original.getEnvelopeHelper(), SharedMessageExtensions.getEnvelopeHelper());
+
+            // new code updates the snapshot, the field follows
+            SharedMessageExtensions.setContentHelper(defaultHelper);
+            Assert.assertSame(defaultHelper, SharedMessageExtensions.contentHelper);
+            Assert.assertSame(defaultHelper, SharedMessageExtensions.getContentHelper());
+        } finally {
+            SharedMessageExtensions.set(original);
+        }
+        Assert.assertSame(defaultHelper, SharedMessageExtensions.contentHelper);
+    }
+
+}
@@ -0,0 +1,126 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BinaryMessageCoderTest {
+
+    @Test
+    public void testRoundTrip() {
+        Map<String, Object> content = new HashMap<>();
+        content.put("type", "1");
+        content.put("sn", 1031427587978559489L);
+        content.put("text", "Hey guy!");
+        Map<String, Object> msg = new HashMap<>();
+        msg.put("sender", "moki@4WDfe3zZ4T7opFSi3iDAKiuTnUHjxmXekk");
+        msg.put("receiver", "hulk@4YeVEN3aUnvC1DNUufCq1bs9zoBSJTzVEj");
+        msg.put("time", 1545405083.5);
+        msg.put("data", "SGVsbG8=");
+        msg.put("tags", Arrays.asList(true, null, -1L));
+        msg.put("content", content);
+        byte[] data = BinaryMessageCoder.encode(msg);
+        Map<String, Object> decoded = BinaryMessageCoder.decode(data);
+        // binary field is backed by the raw bytes, its string form is the base64 text
+        Object value = decoded.get("data");
+        Assert.assertTrue(value instanceof BinaryTransportableData);
+        Assert.assertArrayEquals("Hello".getBytes(), ((BinaryTransportableData) value).getBytes());
+        Assert.assertEquals("SGVsbG8=", value.toString());
+        Assert.assertEquals(value, "SGVsbG8=");
+        decoded.put("data", value.toString());
+        Assert.assertEquals(msg, decoded);
+        // encode again, the bytes are taken as they are
+        Assert.assertArrayEquals(data, BinaryMessageCoder.encode(BinaryMessageCoder.decode(data)));
+    }
+
+    @Test
+    public void testOverflow() {
+        Map<String, Object> msg = new HashMap<>();
+        msg.put("sender", "moki@4WDfe3zZ4T7opFSi3iDAKiuTnUHjxmXekk");
+        msg.put("text", "Hey guy!");
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+        buffer.put((byte) 0x7F);
+        try {
+            BinaryMessageCoder.encode(msg, buffer);
+            Assert.fail("should overflow");
+        } catch (BufferOverflowException e) {
+            // partial record dropped
+            Assert.assertEquals(1, buffer.position());
+        }
+    }
+
+    @Test
+    public void testHugeLength() {
+        // map with 1 pair: 'key' => BINARY, length 0x7FFFFFFF
+        byte[] data = {0x08, 0x01, 0x06, 0x06, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        assertInvalid(data);
+        // list with 0x7FFFFFFF items
+        data = new byte[]{0x08, 0x01, 0x02, 0x07, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        assertInvalid(data);
+        // map with 0x7FFFFFFF pairs
+        data = new byte[]{0x08, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        assertInvalid(data);
+        // string longer than data
+        data = new byte[]{0x08, 0x01, 0x02, 0x05, 0x10, 'a'};
+        assertInvalid(data);
+    }
+
+    @Test
+    public void testTooDeep() {
+        // 'content' => [[[[...]]]]
+        byte[] data = new byte[3 + 10000 * 2];
+        data[0] = 0x08;
+        data[1] = 0x01;
+        data[2] = 0x0B;
+        for (int i = 3; i < data.length; i += 2) {
+            data[i] = 0x07;
+            data[i + 1] = 0x01;
+        }
+        assertInvalid(data);
+    }
+
+    private static void assertInvalid(byte[] data) {
+        try {
+            BinaryMessageCoder.decode(data);
+            Assert.fail("should fail");
+        } catch (IllegalArgumentException e) {
+            // OK
+        }
+    }
+
+}
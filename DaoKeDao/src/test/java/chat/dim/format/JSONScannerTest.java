@@ -0,0 +1,172 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JSONScannerTest {
+
+    private static Object parse(String json) {
+        ByteBuffer buffer = ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8));
+        return new JSONScanner(buffer).readValue();
+    }
+
+    @Test
+    public void testObject() {
+        Map<?, ?> map = (Map<?, ?>) parse("{\"sender\": \"moky@anywhere\", \"time\": 1.5, \"ok\": true, \"tags\": [1, null]}");
+        Assert.assertEquals("moky@anywhere", map.get("sender"));
+        Assert.assertEquals(1.5, map.get("time"));
+        Assert.assertEquals(Boolean.TRUE, map.get("ok"));
+        List<?> tags = (List<?>) map.get("tags");
+        Assert.assertEquals(2, tags.size());
+        Assert.assertEquals(1L, tags.get(0));
+        Assert.assertNull(tags.get(1));
+    }
+
+    @Test
+    public void testLongNumbers() {
+        // 19-digit serial numbers must keep full precision
+        Assert.assertEquals(1031427587978559489L, parse("1031427587978559489"));
+        Assert.assertEquals(Long.MAX_VALUE, parse(String.valueOf(Long.MAX_VALUE)));
+        Assert.assertEquals(Long.MIN_VALUE, parse(String.valueOf(Long.MIN_VALUE)));
+        // overflow falls back to double
+        Assert.assertEquals(9223372036854775808.0, parse("9223372036854775808"));
+        Assert.assertEquals(1e3, parse("1e3"));
+    }
+
+    @Test
+    public void testEscapedString() {
+        Assert.assertEquals("a\"b\n中", parse("\"a\\\"b\\n\\u4e2d\""));
+    }
+
+    @Test
+    public void testTooDeep() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100000; ++i) {
+            sb.append('[');
+        }
+        String json = sb.toString();
+        try {
+            parse(json);
+            Assert.fail("should fail");
+        } catch (IllegalArgumentException e) {
+            // OK
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8));
+        try {
+            new JSONScanner(buffer).skipValue();
+            Assert.fail("should fail");
+        } catch (IllegalArgumentException e) {
+            // OK
+        }
+        // not too deep
+        Object value = parse("[[[[{\"a\": [1]}]]]]");
+        Assert.assertTrue(value instanceof List);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnterminatedString() {
+        parse("\"abc");
+    }
+
+    private static void assertMalformed(String json) {
+        ByteBuffer buffer = ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8));
+        JSONScanner scanner = new JSONScanner(buffer);
+        try {
+            scanner.readValue();
+            scanner.endDocument();
+            Assert.fail("should fail: " + json);
+        } catch (IllegalArgumentException e) {
+            // OK
+        }
+        scanner = new JSONScanner(buffer);
+        try {
+            scanner.skipValue();
+            scanner.endDocument();
+            Assert.fail("should fail: " + json);
+        } catch (IllegalArgumentException e) {
+            // OK
+        }
+    }
+
+    @Test
+    public void testMalformed() {
+        // missing commas
+        assertMalformed("{\"a\": 1 \"b\": 2}");
+        assertMalformed("[1 2]");
+        assertMalformed("[[1] [2]]");
+        // extra commas
+        assertMalformed("{, \"a\": 1}");
+        assertMalformed("{\"a\": 1,}");
+        assertMalformed("{\"a\": 1,, \"b\": 2}");
+        assertMalformed("[,1]");
+        assertMalformed("[1,]");
+        // trailing data
+        assertMalformed("{\"a\": 1} x");
+        assertMalformed("{\"a\": 1}}");
+        assertMalformed("1 2");
+        assertMalformed("[] []");
+    }
+
+    @Test
+    public void testUnicodeEscape() {
+        Assert.assertEquals("\u00e9\uFFFF", parse("\"\\u00E9\\uffff\""));
+        for (String json : new String[]{"\"\\u+123\"", "\"\\u-123\"", "\"\\u12g4\"", "\"\\u12\""}) {
+            try {
+                parse(json);
+                Assert.fail("should fail: " + json);
+            } catch (IllegalArgumentException e) {
+                // OK
+            }
+        }
+    }
+
+    @Test
+    public void testWellFormed() {
+        String json = " {\"a\" : [ 1 , {} , [ ] , \"x\" ] , \"b\":{\"c\":null}}\r\n ";
+        ByteBuffer buffer = ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8));
+        JSONScanner scanner = new JSONScanner(buffer);
+        Map<?, ?> map = (Map<?, ?>) scanner.readValue();
+        scanner.endDocument();
+        Assert.assertEquals(4, ((List<?>) map.get("a")).size());
+        Assert.assertTrue(((Map<?, ?>) map.get("b")).containsKey("c"));
+        scanner = new JSONScanner(buffer);
+        scanner.skipValue();
+        scanner.endDocument();
+    }
+
+}
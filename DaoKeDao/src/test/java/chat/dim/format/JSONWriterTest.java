@@ -0,0 +1,128 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JSONWriterTest {
+
+    private static String stringify(Object value) {
+        StringBuilder sb = new StringBuilder();
+        JSONWriter.appendValue(value, sb);
+        return sb.toString();
+    }
+
+    private static Object parse(CharSequence json) {
+        ByteBuffer buffer = ByteBuffer.allocate(json.length() * 4);
+        JSONWriter.encode(json, buffer);
+        buffer.flip();
+        return new JSONScanner(buffer).readValue();
+    }
+
+    @Test
+    public void testEscaping() {
+        Assert.assertEquals("\"a\\\"b\\\\c\"", stringify("a\"b\\c"));
+        Assert.assertEquals("\"\\n\\r\\t\"", stringify("\n\r\t"));
+        Assert.assertEquals("\"\\u0000\\u001f\\u0008\"", stringify("\u0000\u001f\b"));
+        // non-ASCII characters are kept as they are
+        Assert.assertEquals("\"中/😀\"", stringify("中/😀"));
+    }
+
+    @Test
+    public void testEncode() {
+        String text = "aé中😀";
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        int len = JSONWriter.encode(text, buffer);
+        byte[] expected = text.getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(expected.length, len);
+        Assert.assertArrayEquals(expected, Arrays.copyOf(buffer.array(), len));
+        // unpaired surrogate
+        buffer.clear();
+        Assert.assertEquals(2, JSONWriter.encode("\uD83Da", buffer));
+        Assert.assertEquals('?', buffer.get(0));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        List<Object> list = new ArrayList<>();
+        list.add(1L);
+        list.add(null);
+        list.add(true);
+        list.add("x");
+        Map<String, Object> inner = new LinkedHashMap<>();
+        inner.put("text", "Hello \"world\"\\\n\u0001中文😀");
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("sender", "moki@address");
+        info.put("time", 1545405083.5);
+        info.put("sn", 1031427587978559489L);
+        info.put("list", list);
+        info.put("content", inner);
+        info.put("we\"ird\nkey", false);
+        Assert.assertEquals(info, parse(stringify(info)));
+    }
+
+    @Test
+    public void testSeconds() {
+        StringBuilder sb = new StringBuilder();
+        JSONWriter.appendSeconds(1545405083000L, sb);
+        Assert.assertEquals("1545405083", sb.toString());
+        sb.setLength(0);
+        JSONWriter.appendSeconds(1545405083050L, sb);
+        Assert.assertEquals("1545405083.05", sb.toString());
+        Assert.assertEquals(1545405083.05, parse(sb));
+    }
+
+    @Test
+    public void testOverflow() {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.put((byte) 'x');
+        try {
+            JSONWriter.encode("\"中文字符\"", buffer);
+            Assert.fail("buffer overflow expected");
+        } catch (BufferOverflowException e) {
+            // partial text dropped
+            Assert.assertEquals(1, buffer.position());
+        }
+        Assert.assertEquals(5, JSONWriter.encode("\"中\"", buffer));
+        Assert.assertEquals(6, buffer.position());
+    }
+
+}
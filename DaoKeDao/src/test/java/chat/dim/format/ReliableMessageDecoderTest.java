@@ -0,0 +1,126 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.format;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import chat.dim.TestExtensions;
+import chat.dim.protocol.ReliableMessage;
+
+public class ReliableMessageDecoderTest {
+
+    private static final String MESSAGE = "{\"sender\":\"moki@address0\",\"receiver\":\"hulk@address1\"," +
+            "\"time\":1545405083,\"data\":\"SGVsbG8=\",\"key\":\"S0VZ\",\"signature\":\"U0lH\"}";
+
+    @BeforeClass
+    public static void setUp() {
+        TestExtensions.install();
+    }
+
+    private static ByteBuffer lengthFrame(String json) {
+        byte[] data = json.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer frame = ByteBuffer.allocate(4 + data.length);
+        frame.putInt(data.length);
+        frame.put(data);
+        frame.flip();
+        return frame;
+    }
+
+    @Test
+    public void testLines() {
+        ReliableMessageDecoder decoder = new ReliableMessageDecoder(ReliableMessageDecoder.Framing.LINE, 1024);
+        String text = MESSAGE + "\n\nnot json\n" + MESSAGE + "\n";
+        decoder.feed(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+        ReliableMessage msg = decoder.next();
+        Assert.assertNotNull(msg);
+        Assert.assertEquals("hulk@address1", msg.getReceiver().toString());
+        Assert.assertNotNull(decoder.next());
+        Assert.assertNull(decoder.next());
+        Assert.assertEquals(1, decoder.getDroppedFrames());
+    }
+
+    @Test
+    public void testTooDeep() {
+        ReliableMessageDecoder decoder = new ReliableMessageDecoder(ReliableMessageDecoder.Framing.LINE, 65536);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 60000; ++i) {
+            sb.append('[');
+        }
+        sb.append('\n').append(MESSAGE).append('\n');
+        decoder.feed(ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8)));
+        Assert.assertNotNull(decoder.next());
+        Assert.assertEquals(1, decoder.getDroppedFrames());
+    }
+
+    @Test
+    public void testLengthFrames() {
+        ReliableMessageDecoder decoder = new ReliableMessageDecoder(ReliableMessageDecoder.Framing.LENGTH, 1024);
+        ByteBuffer frame = lengthFrame(MESSAGE);
+        // half a frame
+        ByteBuffer half = frame.duplicate();
+        half.limit(frame.limit() / 2);
+        decoder.feed(half);
+        Assert.assertNull(decoder.next());
+        frame.position(half.position());
+        decoder.feed(frame);
+        Assert.assertNotNull(decoder.next());
+        Assert.assertNull(decoder.next());
+    }
+
+    @Test
+    public void testNegativeLength() {
+        ReliableMessageDecoder decoder = new ReliableMessageDecoder(ReliableMessageDecoder.Framing.LENGTH, 1024);
+        ByteBuffer bad = ByteBuffer.allocate(8);
+        bad.putInt(-1).putInt(0);
+        bad.flip();
+        decoder.feed(bad);
+        Assert.assertNull(decoder.next());
+        Assert.assertTrue(decoder.isCorrupted());
+        Assert.assertEquals(1, decoder.getDroppedFrames());
+        // data after the broken header is dropped, the buffer never fills up
+        for (int i = 0; i < 100; ++i) {
+            ByteBuffer frame = lengthFrame(MESSAGE);
+            Assert.assertEquals(frame.remaining(), decoder.feed(frame));
+            Assert.assertNull(decoder.next());
+        }
+        // start again
+        decoder.reset();
+        Assert.assertFalse(decoder.isCorrupted());
+        decoder.feed(lengthFrame(MESSAGE));
+        Assert.assertNotNull(decoder.next());
+    }
+
+}
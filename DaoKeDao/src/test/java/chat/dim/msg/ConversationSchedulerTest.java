@@ -0,0 +1,81 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.msg;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import chat.dim.TestExtensions;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.ReliableMessage;
+
+public class ConversationSchedulerTest {
+
+    @BeforeClass
+    public static void setUp() {
+        TestExtensions.install();
+    }
+
+    private static ReliableMessage createMessage(String sender, String receiver, String group) {
+        Map<String, Object> info = new HashMap<>();
+        info.put("sender", sender);
+        info.put("receiver", receiver);
+        if (group != null) {
+            info.put("group", group);
+        }
+        info.put("time", 1545405083);
+        info.put("data", "SGVsbG8=");
+        info.put("signature", "U0lH");
+        return ReliableMessage.parse(info);
+    }
+
+    @Test
+    public void testHash() {
+        // one-to-one, both directions
+        int h1 = ConversationScheduler.hash(createMessage("moki@address0", "hulk@address1", null));
+        int h2 = ConversationScheduler.hash(createMessage("hulk@address1", "moki@address0", null));
+        Assert.assertEquals(h1, h2);
+
+        // group message to the group ID, and its copy for a member
+        String gid = "Group-1@group:address9";
+        Assert.assertTrue(ID.parse(gid).isGroup());
+        int g1 = ConversationScheduler.hash(createMessage("moki@address0", gid, null));
+        int g2 = ConversationScheduler.hash(createMessage("moki@address0", "hulk@address1", gid));
+        int g3 = ConversationScheduler.hash(createMessage("hulk@address1", "moki@address0", gid));
+        Assert.assertEquals(g1, g2);
+        Assert.assertEquals(g1, g3);
+    }
+
+}
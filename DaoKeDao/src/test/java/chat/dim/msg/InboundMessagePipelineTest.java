@@ -0,0 +1,158 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.msg;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import chat.dim.TestExtensions;
+import chat.dim.protocol.DecryptKey;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.InstantMessage;
+import chat.dim.protocol.ReliableMessage;
+import chat.dim.protocol.SymmetricKey;
+import chat.dim.protocol.VerifyKey;
+
+public class InboundMessagePipelineTest {
+
+    @BeforeClass
+    public static void setUp() {
+        TestExtensions.install();
+    }
+
+    // no keys for anyone, 'bad' senders break the delegate
+    static class KeyDelegate implements InboundKeyDelegate {
+
+        @Override
+        public List<VerifyKey> getPublicKeysForVerification(ID sender) {
+            if (sender.toString().startsWith("bad")) {
+                throw new AssertionError("delegate error: " + sender);
+            }
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<DecryptKey> getPrivateKeysForDecryption(ID receiver) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public SymmetricKey getCipherKey(ID sender, ID receiver, boolean generate) {
+            return null;
+        }
+
+        @Override
+        public void cacheCipherKey(ID sender, ID receiver, SymmetricKey key) {
+        }
+    }
+
+    // counts errors, then throws
+    static class BrokenHandler implements InboundMessagePipeline.Handler {
+
+        final AtomicInteger errors = new AtomicInteger();
+
+        @Override
+        public void onMessage(InstantMessage iMsg, ReliableMessage rMsg) {
+            Assert.fail("message should not be verified");
+        }
+
+        @Override
+        public void onError(RuntimeException error, ReliableMessage rMsg) {
+            errors.incrementAndGet();
+            throw new IllegalStateException("handler error");
+        }
+    }
+
+    static class Workers implements ThreadFactory {
+
+        final List<Thread> threads = new CopyOnWriteArrayList<>();
+        final AtomicInteger uncaught = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task);
+            thread.setDaemon(true);
+            thread.setUncaughtExceptionHandler((t, e) -> uncaught.incrementAndGet());
+            threads.add(thread);
+            return thread;
+        }
+    }
+
+    private static ReliableMessage createMessage(String sender) {
+        Map<String, Object> info = new HashMap<>();
+        info.put("sender", sender);
+        info.put("receiver", "hulk@address1");
+        info.put("time", 1545405083);
+        info.put("data", "SGVsbG8=");
+        info.put("signature", "U0lH");
+        return ReliableMessage.parse(info);
+    }
+
+    @Test(timeout = 10000)
+    public void testHandlerErrors() throws InterruptedException {
+        BrokenHandler handler = new BrokenHandler();
+        Workers workers = new Workers();
+        InboundMessagePipeline pipeline = new InboundMessagePipeline(new KeyDelegate(), handler,
+                1, 2, 1, workers);
+        for (int i = 0; i < 20; ++i) {
+            pipeline.put(createMessage(i % 2 == 0 ? "moki@address0" : "bad@address0"));
+        }
+        pipeline.close();
+        Assert.assertEquals(20, handler.errors.get());
+        Assert.assertEquals(20, workers.uncaught.get());
+    }
+
+    @Test(timeout = 10000)
+    public void testInterruptedWorker() throws InterruptedException {
+        BrokenHandler handler = new BrokenHandler();
+        Workers workers = new Workers();
+        InboundMessagePipeline pipeline = new InboundMessagePipeline(new KeyDelegate(), handler,
+                2, 2, 1, workers);
+        for (Thread thread : workers.threads) {
+            thread.interrupt();
+        }
+        for (int i = 0; i < 20; ++i) {
+            pipeline.put(createMessage("user" + i + "@address0"));
+        }
+        pipeline.close();
+        Assert.assertEquals(20, handler.errors.get());
+    }
+
+}
@@ -0,0 +1,382 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.msg;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import chat.dim.TestExtensions;
+import chat.dim.dkd.MessageSplitter;
+import chat.dim.dkd.basic.BaseContent;
+import chat.dim.ext.BatchParser;
+import chat.dim.ext.SharedCryptoExtensions;
+import chat.dim.ext.SymmetricKeyHelper;
+import chat.dim.format.Base64;
+import chat.dim.protocol.DecryptKey;
+import chat.dim.protocol.EncryptKey;
+import chat.dim.protocol.Envelope;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.InstantMessage;
+import chat.dim.protocol.ReliableMessage;
+import chat.dim.protocol.SignKey;
+import chat.dim.protocol.SymmetricKey;
+import chat.dim.protocol.TransportableData;
+import chat.dim.protocol.VerifyKey;
+import chat.dim.type.Dictionary;
+
+public class OutboundMessagePipelineTest {
+
+    static final ID SENDER = ID.parse("moki@address0");
+    static final ID HULK = ID.parse("hulk@address1");
+    static final ID GROUP = ID.parse("Group-1@group:address9");
+    static final List<ID> MEMBERS = Arrays.asList(HULK, ID.parse("alice@address2"), ID.parse("bob@address3"));
+
+    private static SymmetricKeyHelper symmetricHelper;
+
+    @BeforeClass
+    public static void setUp() {
+        TestExtensions.install();
+        symmetricHelper = SharedCryptoExtensions.symmetricHelper;
+        SharedCryptoExtensions.symmetricHelper = new XorKeyHelper();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        SharedCryptoExtensions.symmetricHelper = symmetricHelper;
+    }
+
+    //
+    //  Stand-in keys
+    //
+
+    private static byte[] xor(byte[] data, byte mask) {
+        byte[] out = new byte[data.length];
+        for (int i = 0; i < data.length; ++i) {
+            out[i] = (byte) (data[i] ^ mask);
+        }
+        return out;
+    }
+
+    abstract static class StandInKey extends Dictionary {
+
+        StandInKey(Map<String, Object> info) {
+            super(info);
+        }
+
+        public String getAlgorithm() {
+            return getString("algorithm", null);
+        }
+
+        public TransportableData getData() {
+            return TransportableData.parse(get("data"));
+        }
+
+        byte getMask() {
+            return getData().getBytes()[0];
+        }
+    }
+
+    // cipher key: XOR with one byte
+    static final class XorKey extends StandInKey implements SymmetricKey {
+
+        XorKey(Map<String, Object> info) {
+            super(info);
+        }
+
+        XorKey(byte mask) {
+            this(newKey(mask));
+        }
+
+        private static Map<String, Object> newKey(byte mask) {
+            Map<String, Object> info = new HashMap<>();
+            info.put("algorithm", "XOR");
+            info.put("data", Base64.encode(new byte[]{mask}));
+            return info;
+        }
+
+        @Override
+        public byte[] encrypt(byte[] plaintext, Map<String, Object> extra) {
+            return xor(plaintext, getMask());
+        }
+
+        @Override
+        public byte[] decrypt(byte[] ciphertext, Map<String, Object> params) {
+            return xor(ciphertext, getMask());
+        }
+
+        @Override
+        public boolean matchEncryptKey(EncryptKey pKey) {
+            return equals(pKey);
+        }
+    }
+
+    static final class XorKeyHelper implements SymmetricKeyHelper {
+
+        @Override
+        public void setSymmetricKeyFactory(String algorithm, SymmetricKey.Factory factory) {
+        }
+
+        @Override
+        public SymmetricKey.Factory getSymmetricKeyFactory(String algorithm) {
+            return null;
+        }
+
+        @Override
+        public SymmetricKey generateSymmetricKey(String algorithm) {
+            return null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public SymmetricKey parseSymmetricKey(Object key) {
+            return key instanceof Map ? new XorKey((Map<String, Object>) key) : null;
+        }
+    }
+
+    // key pair of a user: XOR with a byte from the ID, signature is a digest
+    static final class UserKey extends StandInKey implements EncryptKey, DecryptKey, SignKey, VerifyKey {
+
+        UserKey(ID user) {
+            super(newKey(user));
+        }
+
+        private static Map<String, Object> newKey(ID user) {
+            Map<String, Object> info = new HashMap<>();
+            info.put("algorithm", "USER");
+            info.put("data", Base64.encode(user.toString().getBytes(StandardCharsets.UTF_8)));
+            return info;
+        }
+
+        @Override
+        byte getMask() {
+            return (byte) (getData().getBytes().length | 0x40);
+        }
+
+        @Override
+        public byte[] encrypt(byte[] plaintext, Map<String, Object> extra) {
+            return xor(plaintext, getMask());
+        }
+
+        @Override
+        public byte[] decrypt(byte[] ciphertext, Map<String, Object> params) {
+            return xor(ciphertext, getMask());
+        }
+
+        @Override
+        public boolean matchEncryptKey(EncryptKey pKey) {
+            return equals(pKey);
+        }
+
+        @Override
+        public byte[] sign(byte[] data) {
+            try {
+                MessageDigest md = MessageDigest.getInstance("SHA-256");
+                md.update(getData().getBytes());
+                return md.digest(data);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public boolean verify(byte[] data, byte[] signature) {
+            return Arrays.equals(sign(data), signature);
+        }
+
+        @Override
+        public boolean matchSignKey(SignKey sKey) {
+            return equals(sKey);
+        }
+    }
+
+    static final class Outbound implements OutboundKeyDelegate {
+
+        final Map<String, SymmetricKey> cipherKeys = new ConcurrentHashMap<>();
+        final AtomicInteger cipherKeyCalls = new AtomicInteger();
+        final AtomicInteger publicKeyCalls = new AtomicInteger();
+
+        @Override
+        public SymmetricKey getCipherKey(ID sender, ID receiver, boolean generate) {
+            cipherKeyCalls.incrementAndGet();
+            return cipherKeys.computeIfAbsent(sender + "->" + receiver,
+                    k -> new XorKey((byte) (cipherKeys.size() + 1)));
+        }
+
+        @Override
+        public EncryptKey getPublicKeyForEncryption(ID receiver) {
+            publicKeyCalls.incrementAndGet();
+            return new UserKey(receiver);
+        }
+
+        @Override
+        public SignKey getPrivateKeyForSignature(ID sender) {
+            return new UserKey(sender);
+        }
+
+        @Override
+        public List<ID> getMembers(ID group) {
+            return MEMBERS;
+        }
+    }
+
+    static final class Inbound implements InboundKeyDelegate {
+
+        final Map<String, SymmetricKey> cipherKeys = new ConcurrentHashMap<>();
+
+        @Override
+        public List<VerifyKey> getPublicKeysForVerification(ID sender) {
+            return Collections.singletonList(new UserKey(sender));
+        }
+
+        @Override
+        public List<DecryptKey> getPrivateKeysForDecryption(ID receiver) {
+            return Collections.singletonList(new UserKey(receiver));
+        }
+
+        @Override
+        public SymmetricKey getCipherKey(ID sender, ID receiver, boolean generate) {
+            return cipherKeys.get(sender + "->" + receiver);
+        }
+
+        @Override
+        public void cacheCipherKey(ID sender, ID receiver, SymmetricKey key) {
+            cipherKeys.put(sender + "->" + receiver, key);
+        }
+    }
+
+    private static List<InstantMessage> createMessages(int count) {
+        Date now = new Date();
+        List<InstantMessage> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            ID receiver = i % 2 == 0 ? HULK : GROUP;
+            BaseContent content = new BaseContent("1");
+            content.put("text", "msg-" + i);
+            messages.add(InstantMessage.create(Envelope.create(SENDER, receiver, now), content));
+        }
+        return messages;
+    }
+
+    private static OutboundMessagePipeline createPipeline(Outbound delegate) {
+        // split even tiny batches, so the order is checked across workers
+        return new OutboundMessagePipeline(delegate, new BatchParser(ForkJoinPool.commonPool(), 1));
+    }
+
+    @Test
+    public void testPack() {
+        Outbound delegate = new Outbound();
+        List<InstantMessage> messages = createMessages(10);
+        List<BatchParser.Result<ReliableMessage>> results = createPipeline(delegate).process(messages);
+        Assert.assertEquals(messages.size(), results.size());
+        for (int i = 0; i < results.size(); ++i) {
+            BatchParser.Result<ReliableMessage> result = results.get(i);
+            Assert.assertFalse(result.isFailed());
+            Assert.assertEquals(i, result.index);
+            ReliableMessage rMsg = result.getValue();
+            Assert.assertEquals(messages.get(i).getReceiver(), rMsg.getReceiver());
+            Assert.assertNull(rMsg.get("content"));
+            if (rMsg.getReceiver().isGroup()) {
+                Assert.assertEquals(MEMBERS.size(), ((Map<?, ?>) rMsg.get("keys")).size());
+                Assert.assertNull(rMsg.get("key"));
+            } else {
+                Assert.assertNotNull(rMsg.get("key"));
+                Assert.assertNull(rMsg.get("keys"));
+            }
+        }
+        // one cipher key for each conversation, encrypted once for each member
+        Assert.assertEquals(2, delegate.cipherKeyCalls.get());
+        Assert.assertEquals(1 + MEMBERS.size(), delegate.publicKeyCalls.get());
+        Assert.assertEquals(results.get(1).getValue().get("keys"), results.get(3).getValue().get("keys"));
+    }
+
+    @Test(timeout = 10000)
+    public void testRoundTrip() throws InterruptedException {
+        List<InstantMessage> messages = createMessages(10);
+        List<BatchParser.Result<ReliableMessage>> results = createPipeline(new Outbound()).process(messages);
+
+        List<String> received = new CopyOnWriteArrayList<>();
+        List<RuntimeException> errors = new CopyOnWriteArrayList<>();
+        InboundMessagePipeline.Handler handler = new InboundMessagePipeline.Handler() {
+            @Override
+            public void onMessage(InstantMessage iMsg, ReliableMessage rMsg) {
+                received.add(iMsg.getReceiver() + ":" + iMsg.getContent().get("text"));
+            }
+
+            @Override
+            public void onError(RuntimeException error, ReliableMessage rMsg) {
+                errors.add(error);
+            }
+        };
+        InboundMessagePipeline inbound = new InboundMessagePipeline(new Inbound(), handler,
+                2, 64, 8, Executors.defaultThreadFactory());
+        for (BatchParser.Result<ReliableMessage> result : results) {
+            ReliableMessage rMsg = result.getValue();
+            if (rMsg.getReceiver().isGroup()) {
+                for (ReliableMessage item : MessageSplitter.split(rMsg, MEMBERS)) {
+                    inbound.put(item);
+                }
+            } else {
+                inbound.put(rMsg);
+            }
+        }
+        inbound.close();
+        Assert.assertEquals(Collections.emptyList(), errors);
+        Assert.assertEquals(5 + 5 * MEMBERS.size(), received.size());
+
+        // messages in one conversation arrive in order
+        List<String> personal = new ArrayList<>();
+        for (String item : received) {
+            if (item.startsWith(HULK + ":") && Integer.parseInt(item.substring(item.indexOf('-') + 1)) % 2 == 0) {
+                personal.add(item);
+            }
+        }
+        Assert.assertEquals(Arrays.asList(HULK + ":msg-0", HULK + ":msg-2", HULK + ":msg-4",
+                HULK + ":msg-6", HULK + ":msg-8"), personal);
+    }
+
+}
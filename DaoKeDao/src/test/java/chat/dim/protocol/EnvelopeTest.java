@@ -0,0 +1,105 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.protocol;
+
+import java.util.Date;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import chat.dim.TestExtensions;
+import chat.dim.ext.EnvelopeHelper;
+import chat.dim.ext.SharedMessageExtensions;
+
+public class EnvelopeTest {
+
+    @BeforeClass
+    public static void setUp() {
+        TestExtensions.install();
+    }
+
+    @Test
+    public void testCreateWithMillis() {
+        ID sender = ID.parse("moki@address0");
+        ID receiver = ID.parse("hulk@address1");
+        long now = 1545405083123L;
+        Envelope env = Envelope.create(sender, receiver, now);
+        Assert.assertEquals(sender, env.getSender());
+        Assert.assertEquals(receiver, env.getReceiver());
+        Assert.assertEquals(now, env.getTimeMillis());
+        Assert.assertEquals(new Date(now), env.getTime());
+    }
+
+    @Test
+    public void testCreateThroughHelper() {
+        EnvelopeHelper helper = SharedMessageExtensions.getEnvelopeHelper();
+        int[] calls = {0};
+        SharedMessageExtensions.setEnvelopeHelper(new EnvelopeHelper() {
+            @Override
+            public void setEnvelopeFactory(Envelope.Factory factory) {
+                helper.setEnvelopeFactory(factory);
+            }
+
+            @Override
+            public Envelope.Factory getEnvelopeFactory() {
+                return helper.getEnvelopeFactory();
+            }
+
+            @Override
+            public Envelope createEnvelope(ID from, ID to, Date when) {
+                ++calls[0];
+                return helper.createEnvelope(from, to, when);
+            }
+
+            @Override
+            public Envelope createEnvelope(ID from, ID to, long millis) {
+                ++calls[0];
+                return helper.createEnvelope(from, to, millis);
+            }
+
+            @Override
+            public Envelope parseEnvelope(Object env) {
+                return helper.parseEnvelope(env);
+            }
+        });
+        try {
+            ID sender = ID.parse("moki@address0");
+            ID receiver = ID.parse("hulk@address1");
+            Envelope.create(sender, receiver, new Date());
+            Envelope.create(sender, receiver, System.currentTimeMillis());
+            Assert.assertEquals(2, calls[0]);
+        } finally {
+            SharedMessageExtensions.setEnvelopeHelper(helper);
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.protocol;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import chat.dim.TestExtensions;
+
+public class LazyParsingTest {
+
+    @BeforeClass
+    public static void setUp() {
+        TestExtensions.install();
+    }
+
+    /**
+     *  Counts items pulled from the source list
+     */
+    static final class CountingIterable implements Iterable<Object> {
+
+        final List<?> items;
+        int pulled = 0;
+
+        CountingIterable(Object... items) {
+            this.items = Arrays.asList(items);
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            Iterator<?> inner = items.iterator();
+            return new Iterator<Object>() {
+
+                @Override
+                public boolean hasNext() {
+                    return inner.hasNext();
+                }
+
+                @Override
+                public Object next() {
+                    ++pulled;
+                    return inner.next();
+                }
+            };
+        }
+    }
+
+    private static Map<String, Object> createContent(long sn) {
+        Map<String, Object> info = new HashMap<>();
+        info.put("type", "1");
+        info.put("sn", sn);
+        info.put("text", "Hello " + sn);
+        return info;
+    }
+
+    private static Map<String, Object> createInstantMessage(long sn) {
+        Map<String, Object> info = new HashMap<>();
+        info.put("sender", "moki@address0");
+        info.put("receiver", "hulk@address1");
+        info.put("time", 1545405083L);
+        info.put("content", createContent(sn));
+        return info;
+    }
+
+    private static Map<String, Object> createReliableMessage(long time) {
+        Map<String, Object> info = new HashMap<>();
+        info.put("sender", "moki@address0");
+        info.put("receiver", "hulk@address1");
+        info.put("time", time);
+        info.put("data", "SGVsbG8=");
+        info.put("signature", "U0lH");
+        return info;
+    }
+
+    @Test
+    public void testContents() {
+        CountingIterable array = new CountingIterable("{\"type\":1", createContent(1), "not json", null, createContent(2), createContent(3));
+        Stream<Content> stream = Content.stream(array);
+        Assert.assertEquals(0, array.pulled);
+        Optional<Content> first = stream.findFirst();
+        Assert.assertTrue(first.isPresent());
+        Assert.assertEquals(1, first.get().getSerialNumber());
+        // stopped at the first valid item
+        Assert.assertEquals(2, array.pulled);
+
+        List<Long> numbers = new ArrayList<>();
+        Content.iterator(array).forEachRemaining(content -> numbers.add(content.getSerialNumber()));
+        Assert.assertEquals(Arrays.asList(1L, 2L, 3L), numbers);
+        Assert.assertEquals(Content.convert(array).size(), numbers.size());
+    }
+
+    @Test
+    public void testInstantMessages() {
+        CountingIterable array = new CountingIterable("[]", createInstantMessage(1), "{}}", createInstantMessage(2));
+        Iterator<InstantMessage> iterator = InstantMessage.iterator(array);
+        Assert.assertTrue(iterator.hasNext());
+        Assert.assertEquals(2, array.pulled);
+        Assert.assertEquals(1, iterator.next().getContent().getSerialNumber());
+        Assert.assertEquals(2, array.pulled);
+        Assert.assertEquals(2, iterator.next().getContent().getSerialNumber());
+        Assert.assertFalse(iterator.hasNext());
+
+        Assert.assertEquals(2, InstantMessage.stream(array).count());
+    }
+
+    @Test
+    public void testReliableMessages() {
+        Map<String, Object> noSender = createReliableMessage(1545405080L);
+        noSender.remove("sender");
+        Map<String, Object> noSignature = createReliableMessage(1545405081L);
+        noSignature.remove("signature");
+        CountingIterable array = new CountingIterable(noSender, createReliableMessage(1545405083L), "",
+                noSignature, createReliableMessage(1545405084L));
+        List<Long> times = ReliableMessage.stream(array)
+                .map(Message::getTimeMillis)
+                .collect(Collectors.toList());
+        Assert.assertEquals(Arrays.asList(1545405083000L, 1545405084000L), times);
+        Assert.assertEquals(ReliableMessage.convert(array).size(), times.size());
+
+        array.pulled = 0;
+        Assert.assertTrue(ReliableMessage.iterator(array).hasNext());
+        Assert.assertEquals(2, array.pulled);
+    }
+
+}
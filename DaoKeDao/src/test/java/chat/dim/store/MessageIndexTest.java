@@ -0,0 +1,150 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.store;
+
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import chat.dim.TestExtensions;
+import chat.dim.protocol.ID;
+
+public class MessageIndexTest {
+
+    @BeforeClass
+    public static void setUp() {
+        TestExtensions.install();
+    }
+
+    @Test
+    public void testFind() {
+        MessageIndex index = new MessageIndex();
+        index.add("hulk@address1", null, 3000, 3);
+        index.add("hulk@address1", "Group-1@group:address9", 1000, 1);
+        index.add("hulk@address1", null, 2000, 2);
+        ID receiver = ID.parse("hulk@address1");
+        Assert.assertArrayEquals(new long[]{1, 2, 3}, index.findByReceiver(receiver, 0, Long.MAX_VALUE));
+        Assert.assertArrayEquals(new long[]{2}, index.findByReceiver(receiver, 1500, 3000));
+        Assert.assertEquals(1, index.countByGroup(ID.parse("Group-1@group:address9")));
+        index.remove("hulk@address1", "Group-1@group:address9", 1000, 1);
+        Assert.assertEquals(2, index.countByReceiver(receiver));
+        Assert.assertEquals(0, index.countByGroup(ID.parse("Group-1@group:address9")));
+    }
+
+    @Test
+    public void testAddWhileRemoving() throws InterruptedException {
+        MessageIndex index = new MessageIndex();
+        int count = 200000;
+        CountDownLatch start = new CountDownLatch(1);
+        // empties the list of each key right after creating it
+        Thread churn = new Thread(() -> {
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            for (int i = 0; i < count; ++i) {
+                index.add("user" + i + "@address1", null, 0, -1);
+                index.remove("user" + i + "@address1", null, 0, -1);
+            }
+        });
+        churn.start();
+        start.countDown();
+        for (int i = 0; i < count; ++i) {
+            index.add("user" + i + "@address1", null, 1, i);
+        }
+        churn.join();
+        int lost = 0;
+        for (int i = 0; i < count; ++i) {
+            if (index.countByReceiver(ID.parse("user" + i + "@address1")) != 1) {
+                ++lost;
+            }
+        }
+        Assert.assertEquals(0, lost);
+    }
+
+    @Test(timeout = 10000)
+    public void testDrainBacklog() {
+        MessageIndex index = new MessageIndex();
+        String key = "hulk@address1";
+        ID receiver = ID.parse(key);
+        int count = 500000;
+        for (int i = 0; i < count; ++i) {
+            index.add(key, null, i, i);
+        }
+        // delivered in order
+        for (int i = 0; i < count; ++i) {
+            index.remove(key, null, i, i);
+            if (i % 100000 == 0) {
+                Assert.assertEquals(count - i - 1, index.countByReceiver(receiver));
+                Assert.assertEquals(i + 1, index.findByReceiver(receiver, 0, Long.MAX_VALUE)[0]);
+            }
+        }
+        Assert.assertEquals(0, index.countByReceiver(receiver));
+    }
+
+    @Test
+    public void testRandomRemove() {
+        MessageIndex index = new MessageIndex();
+        String key = "hulk@address1";
+        ID receiver = ID.parse(key);
+        Random random = new Random(42);
+        TreeMap<Long, Long> expected = new TreeMap<>();
+        for (int round = 0; round < 20000; ++round) {
+            long address = random.nextInt(2000);
+            long time = address * 10;
+            if (expected.containsKey(time)) {
+                index.remove(key, null, time, address);
+                expected.remove(time);
+            } else {
+                index.add(key, null, time, address);
+                expected.put(time, address);
+            }
+            if (round % 100 == 0) {
+                long since = random.nextInt(20000);
+                long until = since + random.nextInt(5000);
+                long[] found = index.findByReceiver(receiver, since, until);
+                long[] wanted = new long[expected.subMap(since, until).size()];
+                int i = 0;
+                for (long value : expected.subMap(since, until).values()) {
+                    wanted[i++] = value;
+                }
+                Assert.assertArrayEquals(wanted, found);
+                Assert.assertEquals(expected.size(), index.countByReceiver(receiver));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,207 @@
+/* license: https://mit-license.org
+ *
+ *  Dao-Ke-Dao: Universal Message Module
+ *
+ *                                Written in 2026 by Moky <albert.moky@gmail.com>
+ *
+ * ==============================================================================
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2026 Albert Moky
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * ==============================================================================
+ */
+package chat.dim.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import chat.dim.TestExtensions;
+import chat.dim.protocol.ID;
+import chat.dim.protocol.ReliableMessage;
+
+public class MessageLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setUp() {
+        TestExtensions.install();
+    }
+
+    private static ReliableMessage createMessage(int i, String data) {
+        Map<String, Object> info = new HashMap<>();
+        info.put("sender", "moki@address0");
+        info.put("receiver", "hulk@address" + (i % 2));
+        info.put("time", 1545405083L + i);
+        info.put("data", data);
+        info.put("signature", "U0lH");
+        return ReliableMessage.parse(info);
+    }
+
+    private static List<ReliableMessage> replay(MessageLog log) {
+        List<ReliableMessage> messages = new ArrayList<>();
+        for (ReliableMessage msg : log) {
+            messages.add(msg);
+        }
+        return messages;
+    }
+
+    private static int count(Iterator<?> iterator) {
+        int count = 0;
+        while (iterator.hasNext()) {
+            iterator.next();
+            ++count;
+        }
+        return count;
+    }
+
+    @Test
+    public void testAppendAndReopen() throws IOException {
+        File dir = folder.newFolder();
+        MessageLog log = new MessageLog(dir, 64 * 1024);
+        List<Long> addresses = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            addresses.add(log.append(createMessage(i, "SGVsbG8=")));
+        }
+        log.markDelivered(addresses.get(0));
+        log.close();
+
+        log = new MessageLog(dir, 64 * 1024);
+        List<ReliableMessage> messages = replay(log);
+        Assert.assertEquals(9, messages.size());
+        Assert.assertEquals(1545405084000L, messages.get(0).getTimeMillis());
+        ID receiver = ID.parse("hulk@address1");
+        Assert.assertEquals(5, count(log.entries(receiver, 0, Long.MAX_VALUE)));
+        log.close();
+    }
+
+    @Test
+    public void testCompact() throws IOException {
+        File dir = folder.newFolder();
+        MessageLog log = new MessageLog(dir, 1024);
+        List<Long> addresses = new ArrayList<>();
+        for (int i = 0; i < 40; ++i) {
+            addresses.add(log.append(createMessage(i, "SGVsbG8=")));
+        }
+        // deliver all but the last message in each sealed segment
+        int lastSegment = MessageLog.segmentId(addresses.get(addresses.size() - 1));
+        for (int i = 0; i < addresses.size() - 1; ++i) {
+            int id = MessageLog.segmentId(addresses.get(i));
+            if (id < lastSegment && id == MessageLog.segmentId(addresses.get(i + 1))) {
+                log.markDelivered(addresses.get(i));
+            }
+        }
+        int live = replay(log).size();
+        Assert.assertTrue(log.compact() > 0);
+        Assert.assertEquals(live, replay(log).size());
+        log.close();
+
+        log = new MessageLog(dir, 1024);
+        Assert.assertEquals(live, replay(log).size());
+        log.close();
+    }
+
+    @Test
+    public void testTornWrite() throws IOException {
+        File dir = folder.newFolder();
+        int size = 32 * 1024 * 1024;
+        MessageLog log = new MessageLog(dir, size);
+        for (int i = 0; i < 3; ++i) {
+            log.append(createMessage(i, "SGVsbG8="));
+        }
+        log.close();
+
+        // crash in the middle of appending a long record:
+        // body written, length not
+        File file = new File(dir, "00000000.seg");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            int end = 0;
+            int length;
+            while ((length = raf.readInt()) > 0) {
+                end += 4 + length;
+                raf.seek(end);
+            }
+            raf.seek(end + 4);
+            for (int i = 0; i < 1024; ++i) {
+                raf.writeInt(1);
+            }
+        }
+
+        // a shorter record written over the torn one
+        log = new MessageLog(dir, size);
+        Assert.assertEquals(3, replay(log).size());
+        log.append(createMessage(3, "SGk="));
+        log.close();
+
+        log = new MessageLog(dir, size);
+        Assert.assertEquals(4, replay(log).size());
+        log.close();
+    }
+
+    @Test
+    public void testCorruptedBody() throws IOException {
+        File dir = folder.newFolder();
+        MessageLog log = new MessageLog(dir, 64 * 1024);
+        List<Long> addresses = new ArrayList<>();
+        for (int i = 0; i < 4; ++i) {
+            addresses.add(log.append(createMessage(i, "SGVsbG8=")));
+        }
+        log.close();
+
+        // overwrite bodies of the 2nd and 3rd records
+        File file = new File(dir, "00000000.seg");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            for (int i = 1; i < 3; ++i) {
+                int offset = MessageLog.offset(addresses.get(i));
+                raf.seek(offset);
+                int length = raf.readInt();
+                // length + flags + time + receiver + group
+                int body = 4 + 1 + 8 + 2 + "hulk@address0".length() + 2;
+                raf.seek(offset + body);
+                for (int pos = body; pos < 4 + length; ++pos) {
+                    raf.write(0xFF);
+                }
+            }
+        }
+
+        log = new MessageLog(dir, 64 * 1024);
+        Assert.assertEquals(4, count(log.entries()));
+        List<ReliableMessage> messages = replay(log);
+        Assert.assertEquals(2, messages.size());
+        Assert.assertEquals(1545405083000L, messages.get(0).getTimeMillis());
+        Assert.assertEquals(1545405086000L, messages.get(1).getTimeMillis());
+        log.close();
+    }
+
+}